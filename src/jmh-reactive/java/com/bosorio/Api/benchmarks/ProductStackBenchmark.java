@@ -0,0 +1,103 @@
+package com.bosorio.Api.benchmarks;
+
+import com.bosorio.Api.SpringApiDockerApplication;
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.services.ProductService;
+import com.bosorio.Api.services.ReactiveProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the servlet and the reactive stacks over HTTP with many concurrent clients.
+ * The product cache is disabled so both stacks hit the database on every request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class ProductStackBenchmark {
+
+    private static final int CATALOG_SIZE = 2_000;
+
+    // r2dbc-h2 executes JDBC calls on the subscribing event loop, so the pool must not make requests wait
+    private static final int POOL_SIZE = 64;
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(SpringApiDockerApplication.class)
+                .profiles(stack.equals("reactive") ? new String[]{"reactive"} : new String[0])
+                .run("--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--rate-limit.products.enabled=false",
+                        "--cache.products.maximum-size=0",
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.r2dbc.pool.max-size=" + POOL_SIZE);
+        List<ProductDto> catalog = IntStream.rangeClosed(1, CATALOG_SIZE)
+                .mapToObj(i -> ProductDto.builder()
+                        .name("Product " + i)
+                        .price(BigDecimal.valueOf(i * 125L, 2))
+                        .build())
+                .toList();
+        if (stack.equals("reactive")) {
+            ReactiveProductService productService = context.getBean(ReactiveProductService.class);
+            Flux.fromIterable(catalog).concatMap(productService::create).blockLast();
+        } else {
+            context.getBean(ProductService.class).createAll(catalog);
+        }
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/products";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String getById() throws IOException, InterruptedException {
+        long id = ThreadLocalRandom.current().nextLong(1, CATALOG_SIZE + 1);
+
+        return send(baseUrl + "/" + id);
+    }
+
+    @Benchmark
+    public String getPage() throws IOException, InterruptedException {
+        return send(baseUrl + "?limit=100");
+    }
+
+    private String send(String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
@@ -0,0 +1,68 @@
+package com.bosorio.Api.benchmarks;
+
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.entities.Product;
+import com.bosorio.Api.repositories.ProductRepository;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+final class InMemoryProductRepository {
+
+    private InMemoryProductRepository() {
+    }
+
+    static List<Product> products(int size) {
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 30, 15, 123_456_000);
+        List<Product> products = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            products.add(Product.builder()
+                    .id(id)
+                    .name("Product " + id)
+                    .price(BigDecimal.valueOf(id * 125, 2))
+                    .availability(id % 2 == 0)
+                    .createdAt(now)
+                    .updatedAt(now.plusSeconds(id))
+                    .version(id % 7)
+                    .build());
+        }
+
+        return products;
+    }
+
+    static ProductRepository of(List<Product> products) {
+        return (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findDtoById" -> {
+                        int index = (int) ((Long) args[0] - 1);
+                        yield index >= 0 && index < products.size()
+                                ? Optional.of(toDto(products.get(index)))
+                                : Optional.empty();
+                    }
+                    case "findDtoPage" -> {
+                        int from = (int) Math.min((Long) args[0], products.size());
+                        int to = Math.min(from + ((Limit) args[1]).max(), products.size());
+                        yield products.subList(from, to).stream()
+                                .map(InMemoryProductRepository::toDto)
+                                .toList();
+                    }
+                    case "streamAllDtos" -> products.stream().map(InMemoryProductRepository::toDto);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryProductRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static ProductDto toDto(Product product) {
+        return new ProductDto(product.getId(), product.getName(), product.getPrice(), product.getAvailability(),
+                product.getCreatedAt(), product.getUpdatedAt(), product.getVersion());
+    }
+}
@@ -0,0 +1,84 @@
+package com.bosorio.Api.benchmarks;
+
+import com.bosorio.Api.SpringApiDockerApplication;
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.services.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Overloads a small connection pool with full-page list requests, with and without load shedding.
+ * Compare the p0.99 and p0.999 rows: shed requests return at once, so admitted requests stop queueing for
+ * connections. Per-client budgets are raised because every benchmark thread shares one address.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class OverloadBenchmark {
+
+    private static final int CATALOG_SIZE = 2_000;
+
+    private static final int POOL_SIZE = 4;
+
+    @Param({"false", "true"})
+    private String rateLimit;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private URI pageUri;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(SpringApiDockerApplication.class)
+                .run("--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.datasource.hikari.minimum-idle=" + POOL_SIZE,
+                        "--spring.datasource.hikari.connection-timeout=30000",
+                        "--rate-limit.products.enabled=" + rateLimit,
+                        "--rate-limit.products.list.capacity=1000000",
+                        "--rate-limit.products.list.refill-per-second=1000000",
+                        "--rate-limit.products.max-pool-pending=" + POOL_SIZE);
+        context.getBean(ProductService.class).createAll(IntStream.rangeClosed(1, CATALOG_SIZE)
+                .mapToObj(i -> ProductDto.builder()
+                        .name("Product " + i)
+                        .price(BigDecimal.valueOf(i * 125L, 2))
+                        .build())
+                .toList());
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        pageUri = URI.create("http://localhost:" + port + "/api/products?limit=1000");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getPage() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(pageUri).GET().build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,112 @@
+package com.bosorio.Api.benchmarks;
+
+import com.bosorio.Api.SpringApiDockerApplication;
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.services.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductApiBenchmark {
+
+    private static final int CATALOG_SIZE = 2_000;
+
+    @Param({"0", "10000"})
+    private String cacheSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    private String listUrl;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(SpringApiDockerApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--rate-limit.products.enabled=false",
+                        "--cache.products.maximum-size=" + cacheSize);
+        productService = context.getBean(ProductService.class);
+        productService.createAll(IntStream.rangeClosed(1, CATALOG_SIZE)
+                .mapToObj(i -> ProductDto.builder()
+                        .name("Product " + i)
+                        .price(BigDecimal.valueOf(i * 125L, 2))
+                        .build())
+                .toList());
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/products/";
+        listUrl = "http://localhost:" + port + "/api/products";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDto getByIdService() {
+        return productService.getById(randomId());
+    }
+
+    @Benchmark
+    public String getByIdHttp() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + randomId())).GET().build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    /**
+     * Probes for ids that do not exist, as bots scanning the API do; every request is a 404.
+     */
+    @Benchmark
+    public int getMissingHttp() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + (CATALOG_SIZE + randomId()))).GET().build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int getPageHttp() throws IOException, InterruptedException {
+        long after = ThreadLocalRandom.current().nextLong(0, CATALOG_SIZE - 100);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(listUrl + "?limit=100&after=" + after)).GET().build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public List<ProductDto> getPageService() {
+        return productService.getPage(null, 100);
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, CATALOG_SIZE + 1);
+    }
+}
@@ -0,0 +1,64 @@
+package com.bosorio.Api.benchmarks;
+
+import com.bosorio.Api.dto.ProductDto;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    // "bean" ignores the annotations and measures the reflective bean serializer
+    @Param({"product", "bean"})
+    private String serializer;
+
+    private ObjectMapper objectMapper;
+
+    private List<ProductDto> productDtos;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (serializer.equals("bean")) {
+            builder.featuresToDisable(MapperFeature.USE_ANNOTATIONS);
+        }
+        objectMapper = builder.build();
+        productDtos = InMemoryProductRepository.products(size).stream()
+                .map(product -> ProductDto.builder()
+                        .id(product.getId())
+                        .name(product.getName())
+                        .price(product.getPrice())
+                        .availability(product.getAvailability())
+                        .createdAt(product.getCreatedAt())
+                        .updatedAt(product.getUpdatedAt())
+                        .version(product.getVersion())
+                        .build())
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] writeListAsBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(productDtos);
+    }
+
+    @Benchmark
+    public void writeListToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), productDtos);
+    }
+}
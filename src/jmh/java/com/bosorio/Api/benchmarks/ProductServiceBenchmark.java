@@ -0,0 +1,116 @@
+package com.bosorio.Api.benchmarks;
+
+import com.bosorio.Api.configs.CacheConfig;
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.repositories.ProductRepository;
+import com.bosorio.Api.services.ProductIndex;
+import com.bosorio.Api.services.impl.ProductServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    private static final PlatformTransactionManager NO_TRANSACTIONS = new PlatformTransactionManager() {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    };
+
+    @Param({"100", "1000"})
+    private int pageSize;
+
+    private ProductServiceImpl uncachedService;
+
+    private ProductServiceImpl cachedService;
+
+    private ProductServiceImpl indexedService;
+
+    private ProductIndex productIndex;
+
+    @Setup
+    public void setUp() {
+        ProductRepository productRepository = InMemoryProductRepository.of(
+                InMemoryProductRepository.products(CATALOG_SIZE));
+        ObjectProvider<ProductIndex> noIndex = new StaticListableBeanFactory().getBeanProvider(ProductIndex.class);
+        uncachedService = new ProductServiceImpl(productRepository, null, null, new NoOpCacheManager(),
+                new SimpleMeterRegistry(), null, null, NO_TRANSACTIONS, noIndex);
+        cachedService = new ProductServiceImpl(productRepository, null, null,
+                new CaffeineCacheManager(CacheConfig.PRODUCTS_CACHE), new SimpleMeterRegistry(), null, null,
+                NO_TRANSACTIONS, noIndex);
+        productIndex = new ProductIndex(productRepository, null, NO_TRANSACTIONS, new SimpleMeterRegistry(),
+                Duration.ofHours(1));
+        indexedService = new ProductServiceImpl(productRepository, null, null, new NoOpCacheManager(),
+                new SimpleMeterRegistry(), null, null, NO_TRANSACTIONS,
+                new StaticListableBeanFactory(Map.of("productIndex", productIndex))
+                        .getBeanProvider(ProductIndex.class));
+        for (long id = 1; id <= CATALOG_SIZE; id++) {
+            cachedService.getById(id);
+        }
+    }
+
+    @Benchmark
+    public List<ProductDto> getPage() {
+        return uncachedService.getPage(null, pageSize);
+    }
+
+    @Benchmark
+    public ProductDto getByIdMapping() {
+        return uncachedService.getById(randomId());
+    }
+
+    @Benchmark
+    public ProductDto getByIdCached() {
+        return cachedService.getById(randomId());
+    }
+
+    @Benchmark
+    public List<ProductDto> getPageIndexed() {
+        return indexedService.getPage(null, pageSize);
+    }
+
+    @Benchmark
+    public ProductDto getByIdIndexed() {
+        return indexedService.getById(randomId());
+    }
+
+    @TearDown
+    public void tearDown() {
+        productIndex.shutdown();
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, CATALOG_SIZE + 1);
+    }
+}
@@ -3,7 +3,7 @@ package com.bosorio.Api.Exceptions;
 public class BadRequestException extends RuntimeException {
 
     public BadRequestException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
 }
@@ -0,0 +1,9 @@
+package com.bosorio.Api.Exceptions;
+
+public class GoneException extends RuntimeException {
+
+    public GoneException(String message) {
+        super(message, null, false, false);
+    }
+
+}
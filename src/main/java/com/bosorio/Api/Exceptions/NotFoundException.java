@@ -3,7 +3,7 @@ package com.bosorio.Api.Exceptions;
 public class NotFoundException extends RuntimeException {
 
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
 }
@@ -0,0 +1,9 @@
+package com.bosorio.Api.Exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message, null, false, false);
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.bosorio.Api.configs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression and entity tags for content that is built once and served many times, like the catalog snapshot
+ * and the OpenAPI document.
+ */
+public final class CompressedContent {
+
+    private CompressedContent() {
+    }
+
+    public static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (OutputStream out = new BestCompressionGZIPOutputStream(gzip)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return gzip.toByteArray();
+    }
+
+    /**
+     * Strong entity tag of {@code bytes}, without quotes.
+     */
+    public static String eTag(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class BestCompressionGZIPOutputStream extends GZIPOutputStream {
+
+        private BestCompressionGZIPOutputStream(OutputStream out) throws IOException {
+            super(out, 64 * 1024);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
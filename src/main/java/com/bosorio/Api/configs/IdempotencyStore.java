@@ -0,0 +1,245 @@
+package com.bosorio.Api.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers the response to each {@code Idempotency-Key} for a while, in a bounded map that evicts by age and
+ * size. With a path, completed responses are also appended to a local file that is read back on start, so keys
+ * survive a restart; the file is rewritten with the live entries when it grows past the map size.
+ */
+public class IdempotencyStore implements AutoCloseable {
+
+    public record Response(int status, Map<String, String> headers, byte[] body) {
+    }
+
+    /**
+     * A key being answered; {@code response} completes with the response to replay, or with {@code null} when the
+     * first attempt is not remembered and the key is free again.
+     */
+    public record Entry(byte[] fingerprint, long expiresAt, CompletableFuture<Response> response) {
+    }
+
+    private final Duration ttl;
+
+    private final long maximumSize;
+
+    private final Cache<String, Entry> entries;
+
+    private final Path path;
+
+    // Not synchronized: writers wait on disk I/O, and a virtual thread blocked on a monitor pins its carrier
+    private final Lock logLock = new ReentrantLock();
+
+    private DataOutputStream log;
+
+    private long appended;
+
+    public IdempotencyStore(Duration ttl, long maximumSize, Path path, MeterRegistry meterRegistry) {
+        this.ttl = ttl;
+        this.maximumSize = maximumSize;
+        this.entries = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Entry>() {
+
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        // Entries read back from the file keep the deadline they were written with
+                        long remaining = entry.expiresAt() - System.currentTimeMillis();
+
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(maximumSize)
+                .build();
+        this.path = path;
+        if (path != null) {
+            try {
+                if (path.toAbsolutePath().getParent() != null) {
+                    Files.createDirectories(path.toAbsolutePath().getParent());
+                }
+                load();
+                compact();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        meterRegistry.gauge("product.api.idempotency.keys", entries, Cache::estimatedSize);
+    }
+
+    public Entry newEntry(byte[] fingerprint) {
+        return new Entry(fingerprint, System.currentTimeMillis() + ttl.toMillis(), new CompletableFuture<>());
+    }
+
+    /**
+     * Claims the key for {@code entry}; returns {@code null} if the caller now answers it, or the entry already
+     * there.
+     */
+    public Entry putIfAbsent(String key, Entry entry) {
+        return entries.asMap().putIfAbsent(key, entry);
+    }
+
+    /**
+     * Completes a claimed entry; with a {@code null} response the key is released so the next attempt runs.
+     */
+    public void complete(String key, Entry entry, Response response) {
+        if (response == null) {
+            entries.asMap().remove(key, entry);
+        }
+        entry.response().complete(response);
+        if (response != null && path != null) {
+            try {
+                append(key, entry, response);
+            } catch (IOException e) {
+                // The response is still remembered in memory; only its survival across a restart is lost
+            }
+        }
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    @Override
+    public void close() throws IOException {
+        logLock.lock();
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    private void append(String key, Entry entry, Response response) throws IOException {
+        logLock.lock();
+        try {
+            if (log == null) {
+                return;
+            }
+            if (appended >= maximumSize) {
+                compact();
+            }
+            write(log, key, entry.fingerprint(), entry.expiresAt(), response);
+            log.flush();
+            appended++;
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                String key;
+                try {
+                    key = in.readUTF();
+                } catch (EOFException e) {
+                    return;
+                }
+                byte[] fingerprint = readBytes(in);
+                long expiresAt = in.readLong();
+                int status = in.readInt();
+                int headerCount = in.readInt();
+                Map<String, String> headers = new LinkedHashMap<>();
+                for (int i = 0; i < headerCount; i++) {
+                    headers.put(in.readUTF(), in.readUTF());
+                }
+                byte[] body = readBytes(in);
+                if (expiresAt > now) {
+                    entries.put(key, new Entry(fingerprint, expiresAt,
+                            CompletableFuture.completedFuture(new Response(status, headers, body))));
+                }
+            }
+        } catch (EOFException e) {
+            // A record cut short by a crash while it was appended; everything before it is kept
+        }
+    }
+
+    private void compact() throws IOException {
+        logLock.lock();
+        try {
+            close();
+            Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(compacted)))) {
+                for (Map.Entry<String, Entry> entry : entries.asMap().entrySet()) {
+                    Response response = entry.getValue().response().getNow(null);
+                    if (response != null) {
+                        write(out, entry.getKey(), entry.getValue().fingerprint(), entry.getValue().expiresAt(),
+                                response);
+                    }
+                }
+            }
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.APPEND)));
+            appended = 0;
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    private static void write(DataOutputStream out, String key, byte[] fingerprint, long expiresAt,
+                              Response response) throws IOException {
+        out.writeUTF(key);
+        out.writeInt(fingerprint.length);
+        out.write(fingerprint);
+        out.writeLong(expiresAt);
+        out.writeInt(response.status());
+        out.writeInt(response.headers().size());
+        for (Map.Entry<String, String> header : response.headers().entrySet()) {
+            out.writeUTF(header.getKey());
+            out.writeUTF(header.getValue());
+        }
+        out.writeInt(response.body().length);
+        out.write(response.body());
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        return bytes;
+    }
+}
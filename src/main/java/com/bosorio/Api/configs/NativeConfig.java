@@ -0,0 +1,36 @@
+package com.bosorio.Api.configs;
+
+import com.bosorio.Api.dto.ProductChangeEvent;
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.dto.ProductSearchDto;
+import com.bosorio.Api.dto.ProductSyncDto;
+import com.bosorio.Api.dto.WriteBehindStatusDto;
+import com.bosorio.Api.entities.Product;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Hints for the native image: Lombok-generated accessors are only reached through reflection, by Jackson
+ * for the DTOs and by Hibernate for the entity, and the generated OpenAPI document is read from the classpath.
+ */
+@Configuration
+@ImportRuntimeHints(NativeConfig.ApiRuntimeHints.class)
+@RegisterReflectionForBinding({ProductDto.class, ProductSearchDto.class, ProductSyncDto.class,
+        ProductChangeEvent.class, WriteBehindStatusDto.class})
+public class NativeConfig {
+
+    static class ApiRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern(OpenApiDocumentGenerator.DOCUMENT)
+                    .registerPattern(OpenApiDocumentGenerator.COMPRESSED_DOCUMENT);
+            hints.reflection().registerType(Product.class, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bosorio.Api.configs;
+
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.core.util.Yaml;
+import io.swagger.v3.oas.models.OpenAPI;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts {@code openapi.yml} into the JSON document served at {@code /v3/api-docs}, plain and gzip-compressed.
+ * Runs during the build ({@code process-classes}) so the application never parses YAML.
+ */
+public final class OpenApiDocumentGenerator {
+
+    public static final String DOCUMENT = "openapi/openapi.json";
+
+    public static final String COMPRESSED_DOCUMENT = DOCUMENT + ".gz";
+
+    private OpenApiDocumentGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: OpenApiDocumentGenerator <openapi.yml> <output directory>");
+        }
+        OpenAPI openAPI = Yaml.mapper().readValue(Path.of(args[0]).toFile(), OpenAPI.class);
+        byte[] document = Json.mapper().writeValueAsBytes(openAPI);
+
+        Path output = Path.of(args[1]);
+        Path json = output.resolve(DOCUMENT);
+        Files.createDirectories(json.getParent());
+        Files.write(json, document);
+        Files.write(output.resolve(COMPRESSED_DOCUMENT), CompressedContent.gzip(document));
+    }
+}
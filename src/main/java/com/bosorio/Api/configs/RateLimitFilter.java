@@ -0,0 +1,151 @@
+package com.bosorio.Api.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Applies a token bucket per client and route class, and sheds load when the application is saturated.
+ * <p>
+ * Buckets follow the generic cell rate algorithm: each one is a single theoretical arrival time updated with
+ * compare-and-set, so admitting a request takes no lock. When requests wait for database connections, list and
+ * bulk routes are refused with 503 first; past the concurrency limit every route is.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public enum Route {
+        DEFAULT, LIST, BULK
+    }
+
+    public record Budget(int capacity, int refillPerSecond) {
+
+        private long intervalNanos() {
+            return TimeUnit.SECONDS.toNanos(1) / refillPerSecond;
+        }
+    }
+
+    private static final Duration IDLE_BUCKET_EXPIRY = Duration.ofMinutes(10);
+
+    private static final long MAX_BUCKETS = 100_000;
+
+    private final Map<Route, Budget> budgets;
+
+    private final int maxConcurrentRequests;
+
+    private final int maxPoolPending;
+
+    private final IntSupplier poolPending;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Cache<String, AtomicLong> buckets = Caffeine.newBuilder()
+            .expireAfterAccess(IDLE_BUCKET_EXPIRY)
+            .maximumSize(MAX_BUCKETS)
+            .build();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public RateLimitFilter(Map<Route, Budget> budgets, int maxConcurrentRequests, int maxPoolPending,
+                           IntSupplier poolPending, MeterRegistry meterRegistry) {
+        this.budgets = new EnumMap<>(budgets);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxPoolPending = maxPoolPending;
+        this.poolPending = poolPending;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("product.api.inflight", inFlight);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = route(request);
+        if (overloaded(route)) {
+            reject(response, route, HttpStatus.SERVICE_UNAVAILABLE, "Service overloaded", 1);
+            return;
+        }
+        long waitNanos = acquire(route, request.getRemoteAddr());
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            reject(response, route, HttpStatus.TOO_MANY_REQUESTS, "Too many requests", retryAfter);
+            return;
+        }
+
+        inFlight.incrementAndGet();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    static Route route(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.endsWith("/batch") || path.endsWith("/export")) {
+            return Route.BULK;
+        }
+        if (request.getMethod().equals("GET") && (path.equals("/api/products") || path.equals("/api/products/")
+                || path.equals("/api/products/search") || path.equals("/api/products/snapshot"))) {
+            return Route.LIST;
+        }
+
+        return Route.DEFAULT;
+    }
+
+    private boolean overloaded(Route route) {
+        if (inFlight.get() >= maxConcurrentRequests) {
+            return true;
+        }
+
+        return route != Route.DEFAULT && poolPending.getAsInt() >= maxPoolPending;
+    }
+
+    /**
+     * Returns zero when the request is admitted, otherwise the nanoseconds until the bucket has a token.
+     */
+    private long acquire(Route route, String client) {
+        Budget budget = budgets.get(route);
+        long interval = budget.intervalNanos();
+        long tolerance = interval * budget.capacity();
+        AtomicLong arrival = buckets.get(route.ordinal() + client, key -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + interval;
+            long waitNanos = next - now - tolerance;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, Route route, HttpStatus status, String message,
+                        long retryAfterSeconds) throws IOException {
+        meterRegistry.counter("product.api.rejected",
+                "route", route.name().toLowerCase(),
+                "status", String.valueOf(status.value())).increment();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
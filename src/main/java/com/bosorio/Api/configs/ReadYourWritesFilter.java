@@ -0,0 +1,53 @@
+package com.bosorio.Api.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Reads from the primary for a while after a client writes, so the client sees its own changes even when
+ * the replicas lag behind.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final long MAX_CLIENTS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(MAX_CLIENTS)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = request.getRemoteAddr();
+        boolean write = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())
+                && !HttpMethod.OPTIONS.matches(request.getMethod());
+        if (!write && recentWriters.getIfPresent(client) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ReplicaDataSource.pinPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaDataSource.unpinPrimary();
+        }
+        if (write && response.getStatus() < 400) {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+}
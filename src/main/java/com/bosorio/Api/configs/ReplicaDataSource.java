@@ -0,0 +1,136 @@
+package com.bosorio.Api.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections for read-only transactions from the healthy replicas in turn, or from the primary
+ * when none is healthy or the current request must read its own writes.
+ * <p>
+ * A replica that fails to give a connection is taken out of rotation at once; a periodic check validates
+ * every replica and puts the reachable ones back.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final HikariDataSource primary;
+
+    private final Replica[] replicas;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter fallbacks;
+
+    private final ScheduledExecutorService healthChecker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("replica-health").daemon().factory());
+
+    public ReplicaDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Duration healthCheckInterval,
+                             MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toArray(Replica[]::new);
+        this.fallbacks = meterRegistry.counter("datasource.replicas.fallbacks");
+        meterRegistry.gauge("datasource.replicas.healthy", this, ReplicaDataSource::healthyReplicas);
+
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends the read-only transactions of the current thread to the primary until {@link #unpinPrimary()}.
+     */
+    public static void pinPrimary() {
+        PRIMARY_PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpinPrimary() {
+        PRIMARY_PINNED.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (PRIMARY_PINNED.get() == null) {
+            int start = next.getAndIncrement();
+            for (int i = 0; i < replicas.length; i++) {
+                Replica replica = replicas[Math.floorMod(start + i, replicas.length)];
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                }
+            }
+            fallbacks.increment();
+        }
+
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Like the Hikari pools behind it; callers such as LazyConnectionDataSourceProxy expect an SQLException
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        // Pool monitoring looks at the primary, which takes every write
+        return iface.isInstance(this) ? (T) this : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    public int healthyReplicas() {
+        return (int) Arrays.stream(replicas).filter(replica -> replica.healthy).count();
+    }
+
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                replica.healthy = false;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package com.bosorio.Api.configs;
 
-import io.swagger.v3.oas.models.OpenAPI;
-import io.swagger.v3.oas.models.info.Info;
-import io.swagger.v3.oas.models.info.License;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import org.yaml.snakeyaml.Yaml;
 
-import java.io.IOException;
-import java.io.InputStream;
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -20,6 +29,42 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${cors.origin}")
     private String corsOrigin;
 
+    @Value("${rate-limit.products.default.capacity:200}")
+    private int defaultCapacity;
+
+    @Value("${rate-limit.products.default.refill-per-second:100}")
+    private int defaultRefillPerSecond;
+
+    @Value("${rate-limit.products.list.capacity:20}")
+    private int listCapacity;
+
+    @Value("${rate-limit.products.list.refill-per-second:10}")
+    private int listRefillPerSecond;
+
+    @Value("${rate-limit.products.bulk.capacity:5}")
+    private int bulkCapacity;
+
+    @Value("${rate-limit.products.bulk.refill-per-second:1}")
+    private int bulkRefillPerSecond;
+
+    @Value("${rate-limit.products.max-concurrent-requests:200}")
+    private int maxConcurrentRequests;
+
+    @Value("${rate-limit.products.max-pool-pending:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int maxPoolPending;
+
+    @Value("${idempotency.ttl:24h}")
+    private Duration idempotencyTtl;
+
+    @Value("${idempotency.max-keys:100000}")
+    private long idempotencyMaxKeys;
+
+    @Value("${idempotency.wait-timeout:10s}")
+    private Duration idempotencyWaitTimeout;
+
+    @Value("${idempotency.path:}")
+    private String idempotencyPath;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -28,11 +73,71 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true);
     }
 
+    // Binary encodings for clients that ask for them; JSON stays first, so it is what */* gets
     @Bean
-    public OpenAPI customOpenAPI() throws IOException {
-        InputStream inputStream = new ClassPathResource("openapi.yml").getInputStream();
-        OpenAPI openAPI = new Yaml().loadAs(inputStream, OpenAPI.class);
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.products.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(ObjectProvider<DataSource> dataSource,
+                                                                   MeterRegistry meterRegistry) {
+        Map<RateLimitFilter.Route, RateLimitFilter.Budget> budgets = Map.of(
+                RateLimitFilter.Route.DEFAULT, new RateLimitFilter.Budget(defaultCapacity, defaultRefillPerSecond),
+                RateLimitFilter.Route.LIST, new RateLimitFilter.Budget(listCapacity, listRefillPerSecond),
+                RateLimitFilter.Route.BULK, new RateLimitFilter.Budget(bulkCapacity, bulkRefillPerSecond));
+        HikariDataSource pool = hikariPool(dataSource.getIfAvailable());
+        RateLimitFilter filter = new RateLimitFilter(budgets, maxConcurrentRequests, maxPoolPending,
+                () -> poolPending(pool), meterRegistry);
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "idempotency.enabled", havingValue = "true", matchIfMissing = true)
+    public IdempotencyStore idempotencyStore(MeterRegistry meterRegistry) {
+        Path path = idempotencyPath.isBlank() ? null : Path.of(idempotencyPath);
+
+        return new IdempotencyStore(idempotencyTtl, idempotencyMaxKeys, path, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "idempotency.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       MeterRegistry meterRegistry) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(idempotencyStore, idempotencyWaitTimeout, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+
+        return registration;
+    }
+
+    private static HikariDataSource hikariPool(DataSource dataSource) {
+        // With read replicas the data source is a proxy; the pool that takes the writes is the one watched
+        try {
+            return dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static int poolPending(HikariDataSource dataSource) {
+        if (dataSource != null) {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                return pool.getThreadsAwaitingConnection();
+            }
+        }
 
-        return openAPI;
+        return 0;
     }
 }
@@ -0,0 +1,72 @@
+package com.bosorio.Api.controllers;
+
+import com.bosorio.Api.configs.CompressedContent;
+import com.bosorio.Api.configs.OpenApiDocumentGenerator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Serves the OpenAPI document generated at build time by {@link OpenApiDocumentGenerator}.
+ */
+@RestController
+@Profile("!reactive")
+public class ApiDocsController {
+
+    private volatile Document document;
+
+    @GetMapping(value = "/v3/api-docs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> apiDocs(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                          String acceptEncoding) {
+        Document current = document();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (ProductController.acceptsGzip(acceptEncoding)) {
+            return response.eTag(current.eTag() + "-gzip")
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(current.gzip());
+        }
+
+        return response.eTag(current.eTag()).body(current.identity());
+    }
+
+    private Document document() {
+        Document current = document;
+        if (current == null) {
+            synchronized (this) {
+                if (document == null) {
+                    byte[] identity = read(OpenApiDocumentGenerator.DOCUMENT);
+                    document = new Document(identity, read(OpenApiDocumentGenerator.COMPRESSED_DOCUMENT),
+                            CompressedContent.eTag(identity));
+                }
+                current = document;
+            }
+        }
+
+        return current;
+    }
+
+    private static byte[] read(String path) {
+        try (InputStream inputStream = new ClassPathResource(path).getInputStream()) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Document(byte[] identity, byte[] gzip, String eTag) {
+    }
+}
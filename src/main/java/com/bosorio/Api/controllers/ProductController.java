@@ -1,100 +1,343 @@
 package com.bosorio.Api.controllers;
 
-import com.bosorio.Api.Exceptions.BadRequestException;
 import com.bosorio.Api.Exceptions.NotFoundException;
+import com.bosorio.Api.Exceptions.PreconditionFailedException;
 import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.dto.ProductSearchDto;
+import com.bosorio.Api.dto.ProductSyncDto;
+import com.bosorio.Api.services.ProductCatalogSnapshot;
+import com.bosorio.Api.services.ProductChangeFeed;
 import com.bosorio.Api.services.ProductService;
+import com.bosorio.Api.services.ProductWriteBehindQueue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/products")
 public class ProductController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    // RFC 8742: CBOR items back to back, each one carrying its own length
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+
+    private static final byte[] PRODUCT_NOT_FOUND = "{\"error\":\"Product not found\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
     private final ProductService productService;
 
+    private final ObjectWriter ndjsonWriter;
+
+    private final ObjectWriter cborWriter;
+
+    private final Counter productNotFound;
+
+    private final ProductChangeFeed changeFeed;
+
+    private final ProductCatalogSnapshot catalogSnapshot;
+
+    private final ProductWriteBehindQueue writeBehindQueue;
+
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectMapper objectMapper,
+                             MappingJackson2CborHttpMessageConverter cborConverter, MeterRegistry meterRegistry,
+                             ProductChangeFeed changeFeed, ProductCatalogSnapshot catalogSnapshot,
+                             ObjectProvider<ProductWriteBehindQueue> writeBehindQueue) {
         this.productService = productService;
+        this.ndjsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.cborWriter = cborConverter.getObjectMapper().writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.productNotFound = meterRegistry.counter("product.api.errors",
+                "exception", NotFoundException.class.getSimpleName(),
+                "status", String.valueOf(HttpStatus.NOT_FOUND.value()));
+        this.changeFeed = changeFeed;
+        this.catalogSnapshot = catalogSnapshot;
+        this.writeBehindQueue = writeBehindQueue.getIfAvailable();
     }
 
     @PostMapping
     public ResponseEntity<?> create(@RequestBody ProductDto productDto) {
-        try {
-            productService.create(productDto);
+        ProductDto created = productService.create(productDto);
 
-            return ResponseEntity.status(HttpStatus.CREATED).body("Product created successfully");
-        } catch (RuntimeException e) {
-            return handleException(e);
-        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{id}")
+                        .buildAndExpand(created.getId())
+                        .toUri())
+                .body("Product created successfully");
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> createAll(@RequestBody List<ProductDto> productDtos) {
+        productService.createAll(productDtos);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body("Products created successfully");
     }
 
     @GetMapping
-    public List<ProductDto> getAll() {
-        return productService.getAll();
+    public ResponseEntity<?> getAll(@RequestParam(required = false) Long after,
+                                    @RequestParam(defaultValue = "100") int limit,
+                                    @RequestParam(required = false)
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince) {
+        if (changedSince != null) {
+            ProductSyncDto productSyncDto = productService.getChangesSince(changedSince, after, limit);
+            List<ProductDto> changed = productSyncDto.getProducts();
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+            if (changed.size() == limit) {
+                response.header(NEXT_CURSOR_HEADER, String.valueOf(changed.get(limit - 1).getId()));
+            }
+
+            return response.body(productSyncDto);
+        }
+        List<ProductDto> productDtos = productService.getPage(after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (productDtos.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(productDtos.get(limit - 1).getId()));
+        }
+
+        return response.body(productDtos);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@ModelAttribute ProductSearchDto productSearchDto) {
+        Page<ProductDto> productDtos = productService.search(productSearchDto);
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .header(TOTAL_COUNT_HEADER, String.valueOf(productDtos.getTotalElements()))
+                .body(productDtos.getContent());
+    }
+
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_CBOR_SEQ_VALUE})
+    public ResponseEntity<StreamingResponseBody> export(@RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                        String accept) {
+        if (prefersCborSequence(accept)) {
+            return ResponseEntity.status(HttpStatus.OK)
+                    .contentType(APPLICATION_CBOR_SEQ)
+                    .body(stream(cborWriter, false));
+        }
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream(ndjsonWriter, true));
+    }
+
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> snapshot(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                           String acceptEncoding) {
+        ProductCatalogSnapshot.Image image = catalogSnapshot.get();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .lastModified(image.builtAt());
+        if (acceptsGzip(acceptEncoding)) {
+            return response.eTag(image.eTag() + "-gzip")
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(image.gzip());
+        }
+
+        return response.eTag(image.eTag()).body(image.identity());
+    }
+
+    @GetMapping("/write-behind")
+    public ResponseEntity<?> writeBehindStatus() {
+        if (writeBehindQueue == null) {
+            throw new NotFoundException("Write-behind mode is disabled");
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).body(writeBehindQueue.status());
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        Long resumeAfter = null;
+        if (lastEventId != null) {
+            try {
+                resumeAfter = Long.valueOf(lastEventId.trim());
+            } catch (NumberFormatException ignored) {
+                // Unknown ids resume from the start of the buffer, preceded by a reset event
+                resumeAfter = 0L;
+            }
+        }
+
+        return changeFeed.subscribe(resumeAfter);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getById(@PathVariable long id) {
-        try {
-            ProductDto productDto = productService.getById(id);
-
-            return ResponseEntity.status(HttpStatus.OK).body(productDto);
-        } catch (RuntimeException e) {
-            return handleException(e);
+        Optional<ProductDto> productDto = productService.findById(id);
+        if (productDto.isEmpty()) {
+            productNotFound.increment();
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(PRODUCT_NOT_FOUND);
         }
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(String.valueOf(productDto.get().getVersion()))
+                .body(productDto.get());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable long id, @RequestBody ProductDto productDto) {
-        try {
-            productService.update(productDto, id);
+    public ResponseEntity<?> update(@PathVariable long id, @RequestBody ProductDto productDto,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        productService.update(productDto, id, expectedVersion(ifMatch));
 
-            return ResponseEntity.status(HttpStatus.OK).body("Product updated successfully");
-        } catch (RuntimeException e) {
-            return handleException(e);
-        }
+        return ResponseEntity.status(HttpStatus.OK).body("Product updated successfully");
     }
 
-    @PatchMapping("/{id}")
-    public ResponseEntity<?> updateAvailability(@PathVariable Long id) {
-        try {
-            productService.updateAvailability(id);
+    @PutMapping("/batch")
+    public ResponseEntity<?> updateAll(@RequestBody List<ProductDto> productDtos) {
+        productService.updateAll(productDtos);
+
+        return ResponseEntity.status(HttpStatus.OK).body("Products updated successfully");
+    }
 
-            return ResponseEntity.status(HttpStatus.OK).body("Product availability updated successfully");
-        } catch (RuntimeException e) {
-            return handleException(e);
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> updateAvailability(@PathVariable Long id,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // Conditional toggles need the current version, so only unconditional ones are queued
+        if (writeBehindQueue != null && ifMatch == null && writeBehindQueue.append(id)) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body("Product availability update accepted");
         }
+        productService.updateAvailability(id, expectedVersion(ifMatch));
+
+        return ResponseEntity.status(HttpStatus.OK).body("Product availability updated successfully");
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable long id) {
-        try {
-            productService.delete(id);
+    public ResponseEntity<?> delete(@PathVariable long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        productService.delete(id, expectedVersion(ifMatch));
 
-            return ResponseEntity.status(HttpStatus.OK).body("Product deleted successfully");
-        } catch (RuntimeException e) {
-            return handleException(e);
+        return ResponseEntity.status(HttpStatus.OK).body("Product deleted successfully");
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<?> deleteAll(@RequestBody List<Long> ids) {
+        productService.deleteAll(ids);
+
+        return ResponseEntity.status(HttpStatus.OK).body("Products deleted successfully");
+    }
+
+    private StreamingResponseBody stream(ObjectWriter writer, boolean newlineDelimited) {
+        return outputStream -> {
+            try (JsonGenerator generator = writer.createGenerator(outputStream)) {
+                productService.streamAll(productDto -> {
+                    try {
+                        writer.writeValue(generator, productDto);
+                        if (newlineDelimited) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    static boolean prefersCborSequence(String accept) {
+        if (accept == null) {
+            return false;
         }
+        // NDJSON unless the client names the CBOR sequence and ranks it above everything else it accepts here
+        MediaType preferred = null;
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            boolean producible = mediaType.isCompatibleWith(APPLICATION_CBOR_SEQ)
+                    || mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON);
+            if (producible && (preferred == null || mediaType.getQualityValue() > preferred.getQualityValue())) {
+                preferred = mediaType;
+            }
+        }
+
+        return preferred != null && preferred.equalsTypeAndSubtype(APPLICATION_CBOR_SEQ);
     }
 
-    private ResponseEntity<?> handleException(RuntimeException e) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", e.getMessage());
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        rejected = Double.parseDouble(parameter.substring(2)) <= 0;
+                    } catch (NumberFormatException ignored) {
+                        rejected = true;
+                    }
+                }
+            }
+            if (name.equals("*")) {
+                wildcard = !rejected;
+            } else {
+                gzip = !rejected;
+            }
+        }
+
+        // An explicit gzip entry, even gzip;q=0, overrides the wildcard
+        if (gzip != null) {
+            return gzip;
+        }
 
-        if (e instanceof BadRequestException) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-        } else if (e instanceof NotFoundException) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
-        } else {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        return wildcard != null && wildcard;
+    }
+
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+            try {
+                return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Falls through: an entity tag we never issued cannot match
+            }
         }
+        throw new PreconditionFailedException("Product version does not match");
     }
 
 }
@@ -0,0 +1,94 @@
+package com.bosorio.Api.controllers;
+
+import com.bosorio.Api.Exceptions.BadRequestException;
+import com.bosorio.Api.Exceptions.GoneException;
+import com.bosorio.Api.Exceptions.NotFoundException;
+import com.bosorio.Api.Exceptions.PreconditionFailedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.UncheckedIOException;
+import java.util.Collections;
+
+/**
+ * Maps exceptions thrown by {@link ProductController} to {@code {"error": message}} responses.
+ * <p>
+ * Bodies are serialized once per message and reused, so repeated client errors only copy bytes.
+ */
+@RestControllerAdvice(assignableTypes = ProductController.class)
+@Profile("!reactive")
+public class ProductExceptionHandler {
+
+    private static final long MAX_CACHED_BODIES = 1024;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectWriter writer;
+
+    private final Cache<String, byte[]> bodies = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_BODIES)
+            .build();
+
+    @Autowired
+    public ProductExceptionHandler(MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.meterRegistry = meterRegistry;
+        this.writer = objectMapper.writer();
+    }
+
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<byte[]> handleException(RuntimeException e) {
+        if (e instanceof ErrorResponse || e instanceof TypeMismatchException
+                || e instanceof HttpMessageConversionException) {
+            // Rethrowing hands request binding errors back to Spring's default resolution
+            throw e;
+        }
+        HttpStatus status = errorStatus(e);
+        String message = status == HttpStatus.CONFLICT ? "Product was modified concurrently" : e.getMessage();
+        meterRegistry.counter("product.api.errors",
+                "exception", e.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(message == null ? serialize(null) : bodies.get(message, this::serialize));
+    }
+
+    static HttpStatus errorStatus(RuntimeException e) {
+        if (e instanceof BadRequestException) {
+            return HttpStatus.BAD_REQUEST;
+        } else if (e instanceof NotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        } else if (e instanceof GoneException) {
+            return HttpStatus.GONE;
+        } else if (e instanceof PreconditionFailedException) {
+            return HttpStatus.PRECONDITION_FAILED;
+        } else if (e instanceof OptimisticLockingFailureException) {
+            return HttpStatus.CONFLICT;
+        }
+
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private byte[] serialize(String message) {
+        try {
+            return writer.writeValueAsBytes(Collections.singletonMap("error", message));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
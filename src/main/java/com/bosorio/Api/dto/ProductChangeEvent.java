@@ -0,0 +1,34 @@
+package com.bosorio.Api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChangeEvent {
+
+    public static final String CREATED = "created";
+
+    public static final String UPDATED = "updated";
+
+    public static final String AVAILABILITY = "availability";
+
+    public static final String DELETED = "deleted";
+
+    public static final String RESET = "reset";
+
+    private Long id;
+
+    private String type;
+
+    private Long productId;
+
+    private ProductDto product;
+
+}
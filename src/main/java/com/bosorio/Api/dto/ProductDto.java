@@ -1,6 +1,6 @@
 package com.bosorio.Api.dto;
 
-
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@JsonSerialize(using = ProductDtoSerializer.class)
 public class ProductDto {
 
     private Long id;
@@ -27,4 +28,6 @@ public class ProductDto {
 
     private LocalDateTime updatedAt;
 
+    private Long version;
+
 }
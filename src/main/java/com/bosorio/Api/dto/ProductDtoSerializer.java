@@ -0,0 +1,126 @@
+package com.bosorio.Api.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes {@link ProductDto} with its field names encoded once and the timestamps formatted into a reused
+ * buffer, producing the same JSON as the bean serializer with ISO-8601 dates without intermediate strings.
+ */
+public class ProductDtoSerializer extends StdSerializer<ProductDto> {
+
+    private static final SerializedString ID = new SerializedString("id");
+
+    private static final SerializedString NAME = new SerializedString("name");
+
+    private static final SerializedString PRICE = new SerializedString("price");
+
+    private static final SerializedString AVAILABILITY = new SerializedString("availability");
+
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    // yyyy-MM-ddTHH:mm:ss.SSSSSSSSS
+    private static final int MAX_TIMESTAMP_LENGTH = 29;
+
+    private static final ThreadLocal<char[]> TIMESTAMP_BUFFER =
+            ThreadLocal.withInitial(() -> new char[MAX_TIMESTAMP_LENGTH]);
+
+    public ProductDtoSerializer() {
+        super(ProductDto.class);
+    }
+
+    @Override
+    public void serialize(ProductDto productDto, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        // With the field count known the CBOR writer emits a definite-length map
+        generator.writeStartObject(productDto, 7);
+        generator.writeFieldName(ID);
+        writeNumber(generator, productDto.getId());
+        generator.writeFieldName(NAME);
+        generator.writeString(productDto.getName());
+        generator.writeFieldName(PRICE);
+        generator.writeNumber(productDto.getPrice());
+        generator.writeFieldName(AVAILABILITY);
+        if (productDto.getAvailability() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(productDto.getAvailability());
+        }
+        generator.writeFieldName(CREATED_AT);
+        writeTimestamp(generator, provider, productDto.getCreatedAt());
+        generator.writeFieldName(UPDATED_AT);
+        writeTimestamp(generator, provider, productDto.getUpdatedAt());
+        generator.writeFieldName(VERSION);
+        writeNumber(generator, productDto.getVersion());
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, SerializerProvider provider, LocalDateTime value)
+            throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value.getYear() < 0 || value.getYear() > 9999
+                || provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(value, generator);
+        } else {
+            char[] buffer = TIMESTAMP_BUFFER.get();
+            generator.writeString(buffer, 0, formatTimestamp(value, buffer));
+        }
+    }
+
+    /**
+     * Formats like {@link java.time.format.DateTimeFormatter#ISO_LOCAL_DATE_TIME} for years 0 to 9999: seconds
+     * are always written and the fraction only with the digits it needs.
+     */
+    static int formatTimestamp(LocalDateTime value, char[] buffer) {
+        writeDigits(buffer, 0, value.getYear(), 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, value.getMonthValue(), 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, value.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, value.getHour(), 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, value.getMinute(), 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, value.getSecond(), 2);
+        int nano = value.getNano();
+        if (nano == 0) {
+            return 19;
+        }
+        int digits = 9;
+        while (nano % 10 == 0) {
+            nano /= 10;
+            digits--;
+        }
+        buffer[19] = '.';
+        writeDigits(buffer, 20, nano, digits);
+
+        return 20 + digits;
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.bosorio.Api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductSearchDto {
+
+    private String name;
+
+    @Builder.Default
+    private String match = "contains";
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private Boolean available;
+
+    @Builder.Default
+    private int page = 0;
+
+    @Builder.Default
+    private int size = 20;
+
+    @Builder.Default
+    private String sort = "id,asc";
+
+}
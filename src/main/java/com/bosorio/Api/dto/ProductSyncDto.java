@@ -0,0 +1,23 @@
+package com.bosorio.Api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductSyncDto {
+
+    private List<ProductDto> products;
+
+    private List<Long> deletedIds;
+
+    private LocalDateTime syncedAt;
+
+}
@@ -0,0 +1,22 @@
+package com.bosorio.Api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class WriteBehindStatusDto {
+
+    private long pendingWrites;
+
+    private long lagMillis;
+
+    private long lastSequence;
+
+    private long appliedSequence;
+
+}
@@ -0,0 +1,23 @@
+package com.bosorio.Api.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "write_behind_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WriteBehindCheckpoint {
+
+    @Id
+    private String name;
+
+    @Column(name = "applied_sequence", nullable = false)
+    private Long appliedSequence;
+
+}
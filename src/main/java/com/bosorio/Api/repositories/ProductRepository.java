@@ -1,9 +1,76 @@
 package com.bosorio.Api.repositories;
 
+import com.bosorio.Api.dto.ProductDto;
 import com.bosorio.Api.entities.Product;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ProductRepository extends CrudRepository<Product, Long> {
+public interface ProductRepository extends CrudRepository<Product, Long>, ProductSearchRepository {
+
+    String DTO_SELECT = "select new com.bosorio.Api.dto.ProductDto(p.id, p.name, p.price, p.availability, "
+            + "p.createdAt, p.updatedAt, p.version) from Product p ";
+
+    @Transactional(readOnly = true)
+    @Query(DTO_SELECT + "where p.id = :id")
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query(DTO_SELECT + "where p.id > :id order by p.id asc")
+    List<ProductDto> findDtoPage(@Param("id") Long id, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(DTO_SELECT + "where p.id in :ids")
+    List<ProductDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional(readOnly = true)
+    @Query(DTO_SELECT + "where p.updatedAt > :since order by p.updatedAt asc, p.id asc")
+    List<ProductDto> findDtosUpdatedAfter(@Param("since") LocalDateTime since);
+
+    @Transactional(readOnly = true)
+    @Query(DTO_SELECT + "where p.updatedAt > :since or (p.updatedAt = :since and p.id > :id) "
+            + "order by p.updatedAt asc, p.id asc")
+    List<ProductDto> findDtosUpdatedAfter(@Param("since") LocalDateTime since, @Param("id") Long id, Limit limit);
+
+    @Query("select max(p.updatedAt) from Product p")
+    Optional<LocalDateTime> findLastUpdatedAt();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(DTO_SELECT + "order by p.id asc")
+    Stream<ProductDto> streamAllDtos();
+
+    @Modifying
+    @Query("update Product p set p.name = :name, p.price = :price, p.updatedAt = :updatedAt, "
+            + "p.version = p.version + 1 where p.id = :id and (:version is null or p.version = :version)")
+    int updateDetails(@Param("id") Long id, @Param("name") String name, @Param("price") BigDecimal price,
+                      @Param("updatedAt") LocalDateTime updatedAt, @Param("version") Long version);
+
+    @Modifying
+    @Query("update Product p set p.availability = case when p.availability = true then false else true end, "
+            + "p.updatedAt = :updatedAt, p.version = p.version + 1 "
+            + "where p.id = :id and (:version is null or p.version = :version)")
+    int toggleAvailability(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt,
+                           @Param("version") Long version);
+
+    @Modifying
+    @Query("update Product p set p.availability = case when p.availability = true then false else true end, "
+            + "p.updatedAt = :updatedAt, p.version = p.version + 1 where p.id in :ids")
+    int toggleAvailabilityAll(@Param("ids") Collection<Long> ids, @Param("updatedAt") LocalDateTime updatedAt);
+
 }
@@ -0,0 +1,17 @@
+package com.bosorio.Api.repositories;
+
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.entities.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ProductSearchRepository {
+
+    /**
+     * Page of the products matching {@code specification}, selected straight into {@link ProductDto} instead of
+     * loading managed entities.
+     */
+    Page<ProductDto> findDtos(Specification<Product> specification, Pageable pageable);
+
+}
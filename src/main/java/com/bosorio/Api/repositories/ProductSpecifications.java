@@ -0,0 +1,42 @@
+package com.bosorio.Api.repositories;
+
+import com.bosorio.Api.entities.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+public final class ProductSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> nameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), escapeLike(prefix) + "%", LIKE_ESCAPE);
+    }
+
+    public static Specification<Product> nameContains(String text) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), "%" + escapeLike(text) + "%", LIKE_ESCAPE);
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Product> availability(Boolean available) {
+        return (root, query, cb) -> cb.equal(root.get("availability"), available);
+    }
+
+    private static String escapeLike(String text) {
+        return text.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,31 @@
+package com.bosorio.Api.repositories;
+
+import com.bosorio.Api.entities.ProductTombstone;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductTombstoneRepository extends CrudRepository<ProductTombstone, Long> {
+
+    @Query("select t.productId from ProductTombstone t where t.deletedAt > :since order by t.deletedAt, t.productId")
+    List<Long> findProductIdsDeletedAfter(@Param("since") LocalDateTime since);
+
+    @Query("select t.productId from ProductTombstone t where t.deletedAt > :since and t.deletedAt <= :until "
+            + "order by t.deletedAt, t.productId")
+    List<Long> findProductIdsDeletedBetween(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
+    @Query("select max(t.deletedAt) from ProductTombstone t")
+    Optional<LocalDateTime> findLastDeletedAt();
+
+    @Modifying
+    @Query("delete from ProductTombstone t where t.deletedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+
+}
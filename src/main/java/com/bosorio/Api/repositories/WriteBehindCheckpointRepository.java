@@ -0,0 +1,9 @@
+package com.bosorio.Api.repositories;
+
+import com.bosorio.Api.entities.WriteBehindCheckpoint;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WriteBehindCheckpointRepository extends CrudRepository<WriteBehindCheckpoint, String> {
+}
@@ -0,0 +1,204 @@
+package com.bosorio.Api.services;
+
+import com.bosorio.Api.configs.CompressedContent;
+import com.bosorio.Api.repositories.ProductRepository;
+import com.bosorio.Api.repositories.ProductTombstoneRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the full product list serialized as JSON, both plain and gzip-compressed, so catalog downloads only
+ * copy bytes.
+ * <p>
+ * Writes mark the image stale; it is rebuilt at most once per {@code snapshot.products.max-staleness}, so a
+ * burst of writes costs a single rebuild and readers never see data older than that bound plus the rebuild.
+ * Writes made by other instances are noticed by comparing the latest {@code updatedAt} and deletion with the
+ * ones the image was built from, every {@code snapshot.products.check-interval}.
+ */
+@Service
+@Profile("!reactive")
+public class ProductCatalogSnapshot {
+
+    private final ProductRepository productRepository;
+
+    private final ProductTombstoneRepository tombstoneRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectWriter writer;
+
+    private final long maxStaleness;
+
+    private final Timer buildTimer;
+
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-snapshot").daemon().factory());
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Lock buildLock = new ReentrantLock();
+
+    private volatile Image image;
+
+    private volatile Watermark imageWatermark;
+
+    @Autowired
+    public ProductCatalogSnapshot(ProductRepository productRepository,
+                                  ProductTombstoneRepository tombstoneRepository,
+                                  PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${snapshot.products.max-staleness:1s}") Duration maxStaleness,
+                                  @Value("${snapshot.products.check-interval:5s}") Duration checkInterval) {
+        this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        // Not read-only, so with read replicas the image is built from the primary: one built from a lagging
+        // replica would be served until the next write
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writer = objectMapper.writer();
+        this.maxStaleness = maxStaleness.toMillis();
+        this.buildTimer = meterRegistry.timer("product.snapshot.build");
+        meterRegistry.gauge("product.snapshot.bytes", this, snapshot -> {
+            Image current = snapshot.image;
+            return current == null ? 0 : current.identity().length;
+        });
+
+        long interval = checkInterval.toMillis();
+        rebuilder.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public Image get() {
+        Image current = image;
+        if (current != null) {
+            return current;
+        }
+        // Not synchronized: the first build waits on the database, and a virtual thread blocked on a monitor
+        // pins its carrier
+        buildLock.lock();
+        try {
+            if (image == null) {
+                long built = generation.get();
+                image = build();
+                if (generation.get() != built) {
+                    scheduleRebuild();
+                }
+            }
+
+            return image;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (image != null) {
+            scheduleRebuild();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    void check() {
+        if (image == null || rebuildScheduled.get()) {
+            return;
+        }
+        try {
+            if (!transactionTemplate.execute(status -> watermark()).equals(imageWatermark)) {
+                scheduleRebuild();
+            }
+        } catch (RuntimeException e) {
+            // Checked again on the next run
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(this::rebuild, maxStaleness, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        // Cleared first so writes committed during the build schedule another one
+        rebuildScheduled.set(false);
+        try {
+            image = build();
+        } catch (RuntimeException e) {
+            scheduleRebuild();
+        }
+    }
+
+    private Image build() {
+        return buildTimer.record(() -> transactionTemplate.execute(status -> {
+            // Read first, so a write committed during the build shows up as a newer watermark
+            Watermark watermark = watermark();
+            ByteArrayOutputStream identity = new ByteArrayOutputStream(64 * 1024);
+            try (JsonGenerator generator = writer.createGenerator(identity)) {
+                generator.writeStartArray();
+                try (var productDtos = productRepository.streamAllDtos()) {
+                    productDtos.forEach(productDto -> {
+                        try {
+                            writer.writeValue(generator, productDto);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            Image built = Image.of(identity.toByteArray(), Instant.now());
+            imageWatermark = watermark;
+
+            return built;
+        }));
+    }
+
+    private Watermark watermark() {
+        return new Watermark(productRepository.findLastUpdatedAt().orElse(null),
+                tombstoneRepository.findLastDeletedAt().orElse(null));
+    }
+
+    private record Watermark(LocalDateTime updatedAt, LocalDateTime deletedAt) {
+    }
+
+    /**
+     * The catalog as JSON and as gzip; {@code eTag} is the strong entity tag of the JSON, without quotes.
+     */
+    public record Image(byte[] identity, byte[] gzip, String eTag, Instant builtAt) {
+
+        static Image of(byte[] identity, Instant builtAt) {
+            return new Image(identity, CompressedContent.gzip(identity), CompressedContent.eTag(identity), builtAt);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.bosorio.Api.services;
+
+import com.bosorio.Api.dto.ProductChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed product changes out to Server-Sent Events subscribers.
+ * <p>
+ * The last events are kept in a ring buffer so reconnecting clients can resume from {@code Last-Event-ID}.
+ * Every subscriber has a bounded queue drained on its own virtual thread; publishing never blocks on a
+ * subscriber, and a subscriber whose queue cannot take a whole batch is disconnected. A batch larger than a
+ * subscriber queue is published as a single {@code reset} event, so bulk writes neither disconnect clients that
+ * keep up nor push the previous events out of the buffer.
+ */
+@Service
+public class ProductChangeFeed {
+
+    private final ProductChangeEvent[] ring;
+
+    private final int subscriberQueueSize;
+
+    private final long timeout;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter droppedSubscribers;
+
+    private final long firstSequence;
+
+    private long lastSequence;
+
+    @Autowired
+    public ProductChangeFeed(@Value("${changes.products.buffer-size:1024}") int bufferSize,
+                             @Value("${changes.products.subscriber-queue-size:256}") int subscriberQueueSize,
+                             @Value("${changes.products.timeout:30m}") Duration timeout,
+                             MeterRegistry meterRegistry) {
+        this.ring = new ProductChangeEvent[bufferSize];
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.timeout = timeout.toMillis();
+        // Event ids keep growing across restarts, so an id from a previous run is always older than the buffer
+        this.lastSequence = System.currentTimeMillis() * 1000;
+        this.firstSequence = lastSequence + 1;
+        this.droppedSubscribers = meterRegistry.counter("product.changes.dropped");
+        meterRegistry.gauge("product.changes.subscribers", subscribers, List::size);
+    }
+
+    public void publish(List<ProductChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<ProductChangeEvent> published = events.size() > subscriberQueueSize
+                ? List.of(ProductChangeEvent.builder().type(ProductChangeEvent.RESET).build())
+                : events;
+        List<Subscriber> overflowed = new ArrayList<>();
+        synchronized (ring) {
+            for (ProductChangeEvent event : published) {
+                event.setId(++lastSequence);
+                ring[(int) (lastSequence % ring.length)] = event;
+            }
+            // Queues are only filled under this lock, so the free space checked here is still there below
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.queue.remainingCapacity() < published.size()) {
+                    overflowed.add(subscriber);
+                } else {
+                    subscriber.queue.addAll(published);
+                }
+            }
+        }
+        overflowed.forEach(subscriber -> {
+            droppedSubscribers.increment();
+            subscriber.close();
+        });
+        subscribers.forEach(this::scheduleSend);
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        Subscriber subscriber;
+        synchronized (ring) {
+            List<ProductChangeEvent> replay = replay(lastEventId);
+            subscriber = new Subscriber(new SseEmitter(timeout), subscriberQueueSize + replay.size());
+            subscriber.queue.addAll(replay);
+            subscribers.add(subscriber);
+        }
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(e -> subscriber.close());
+        scheduleSend(subscriber);
+
+        return subscriber.emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        senders.shutdownNow();
+    }
+
+    private List<ProductChangeEvent> replay(Long lastEventId) {
+        List<ProductChangeEvent> replay = new ArrayList<>();
+        if (lastEventId == null || lastEventId == lastSequence) {
+            return replay;
+        }
+        long oldest = Math.max(firstSequence, lastSequence - ring.length + 1);
+        if (lastEventId < oldest - 1 || lastEventId > lastSequence) {
+            replay.add(ProductChangeEvent.builder().type(ProductChangeEvent.RESET).build());
+        }
+        for (long sequence = Math.max(lastEventId + 1, oldest); sequence <= lastSequence; sequence++) {
+            replay.add(ring[(int) (sequence % ring.length)]);
+        }
+
+        return replay;
+    }
+
+    private void scheduleSend(Subscriber subscriber) {
+        if (!subscriber.queue.isEmpty() && subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            ProductChangeEvent event;
+            while ((event = subscriber.queue.poll()) != null) {
+                SseEmitter.SseEventBuilder sseEvent = SseEmitter.event();
+                if (event.getId() != null) {
+                    sseEvent.id(String.valueOf(event.getId()));
+                }
+                subscriber.emitter.send(sseEvent.name(event.getType()).data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscriber.close();
+        } finally {
+            subscriber.sending.set(false);
+        }
+        scheduleSend(subscriber);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<ProductChangeEvent> queue;
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, int queueSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        }
+
+        private void close() {
+            if (subscribers.remove(this)) {
+                queue.clear();
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package com.bosorio.Api.services;
+
+import com.bosorio.Api.dto.ProductChangeEvent;
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.repositories.ProductRepository;
+import com.bosorio.Api.repositories.ProductTombstoneRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Serves product reads from memory on read-only replicas, so lookups and cursor pages never reach the database.
+ * <p>
+ * Products are fixed-layout records in a direct buffer: the price as a long in cents (the column scale), the
+ * timestamps as epoch microseconds, the version and the position of the UTF-8 name in a second direct buffer.
+ * The heap only holds an open-addressing table from primitive id to record slot and the ids in order for the
+ * cursor pages. The index is loaded at startup, follows the writes committed by this instance and every
+ * {@code index.products.refresh-interval} applies the rows and tombstones changed since the previous refresh,
+ * so writes from other instances show up within that interval.
+ */
+@Service
+@Profile("!reactive")
+@ConditionalOnProperty(name = "index.products.enabled", havingValue = "true")
+public class ProductIndex {
+
+    static final int PRICE_SCALE = 2;
+
+    // Padded so the longs of every record stay 8-byte aligned
+    private static final int RECORD_SIZE = 48;
+
+    private static final int PRICE = 0;
+
+    private static final int CREATED_AT = 8;
+
+    private static final int UPDATED_AT = 16;
+
+    private static final int VERSION = 24;
+
+    private static final int NAME_OFFSET = 32;
+
+    private static final int NAME_LENGTH = 36;
+
+    private static final int FLAGS = 40;
+
+    private static final byte AVAILABLE = 1;
+
+    private static final byte AVAILABILITY_UNKNOWN = 2;
+
+    private static final long NULL = Long.MIN_VALUE;
+
+    private static final int NULL_NAME = -1;
+
+    // Ids come from products_seq and are positive, so zero marks a free bucket
+    private static final long FREE = 0;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int STREAM_PAGE_SIZE = 1000;
+
+    // Same lag as the sync endpoint: rows committed shortly before a refresh may carry an older updatedAt
+    private static final Duration REFRESH_WATERMARK_LAG = Duration.ofSeconds(5);
+
+    private final ProductRepository productRepository;
+
+    private final ProductTombstoneRepository tombstoneRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter failedRefreshes;
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-index").daemon().factory());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] keys = new long[INITIAL_CAPACITY * 2];
+
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+    private long[] sortedIds = new long[INITIAL_CAPACITY];
+
+    private int size;
+
+    private ByteBuffer records = ByteBuffer.allocateDirect(INITIAL_CAPACITY * RECORD_SIZE);
+
+    private int allocatedSlots;
+
+    private int[] freeSlots = new int[16];
+
+    private int freeSlotCount;
+
+    private ByteBuffer names = ByteBuffer.allocateDirect(INITIAL_CAPACITY * 32);
+
+    private int namesUsed;
+
+    private int namesGarbage;
+
+    private LocalDateTime watermark;
+
+    @Autowired
+    public ProductIndex(ProductRepository productRepository, ProductTombstoneRepository tombstoneRepository,
+                        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                        @Value("${index.products.refresh-interval:1s}") Duration refreshInterval) {
+        this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        // Not read-only, so with read replicas the loads go to the primary: a lagging replica would miss rows
+        // older than the watermark lag for good
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.failedRefreshes = meterRegistry.counter("product.index.refresh.failures");
+        meterRegistry.gauge("product.index.size", this, ProductIndex::size);
+        meterRegistry.gauge("product.index.offheap.bytes", this, ProductIndex::offHeapBytes);
+
+        load();
+        long interval = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public Optional<ProductDto> findById(long id) {
+        lock.readLock().lock();
+        try {
+            int bucket = bucketOf(id);
+
+            return bucket < 0 ? Optional.empty() : Optional.of(read(id, slots[bucket]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} products with an id greater than {@code after}, in id order.
+     */
+    public List<ProductDto> getPage(long after, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = Arrays.binarySearch(sortedIds, 0, size, after);
+            from = from >= 0 ? from + 1 : -(from + 1);
+            int to = from + Math.min(limit, size - from);
+            List<ProductDto> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                long id = sortedIds[i];
+                page.add(read(id, slots[bucketOf(id)]));
+            }
+
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void forEach(Consumer<ProductDto> consumer) {
+        // Copied page by page so a slow consumer never holds the lock
+        List<ProductDto> page;
+        long after = 0;
+        do {
+            page = getPage(after, STREAM_PAGE_SIZE);
+            page.forEach(consumer);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * Applies committed changes; events carrying an older version than the indexed one are ignored, and events
+     * that only name the product are read back from the database.
+     */
+    public void apply(List<ProductChangeEvent> events) {
+        List<Long> changedIds = new ArrayList<>();
+        for (ProductChangeEvent event : events) {
+            if (ProductChangeEvent.DELETED.equals(event.getType())) {
+                remove(event.getProductId());
+            } else if (event.getProduct() != null) {
+                put(event.getProduct());
+            } else if (event.getProductId() != null) {
+                changedIds.add(event.getProductId());
+            }
+        }
+        try {
+            for (int from = 0; from < changedIds.size(); from += STREAM_PAGE_SIZE) {
+                List<Long> chunk = changedIds.subList(from, Math.min(from + STREAM_PAGE_SIZE, changedIds.size()));
+                transactionTemplate.executeWithoutResult(status ->
+                        productRepository.findDtosByIdIn(chunk).forEach(this::put));
+            }
+        } catch (RuntimeException e) {
+            // The rows carry a newer updatedAt than the watermark, so the next refresh catches up
+            failedRefreshes.increment();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) records.capacity() + names.capacity();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void refresh() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.findDtosUpdatedAfter(watermark).forEach(this::put);
+                tombstoneRepository.findProductIdsDeletedAfter(watermark).forEach(this::remove);
+            });
+            watermark = now.minus(REFRESH_WATERMARK_LAG);
+        } catch (RuntimeException e) {
+            // The watermark is kept, so the next refresh catches up
+            failedRefreshes.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void load() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ProductDto> productDtos = productRepository.streamAllDtos()) {
+                productDtos.forEach(this::put);
+            }
+        });
+        watermark = now.minus(REFRESH_WATERMARK_LAG);
+    }
+
+    private void put(ProductDto productDto) {
+        long id = productDto.getId();
+        long version = productDto.getVersion() == null ? NULL : productDto.getVersion();
+        byte[] name = productDto.getName() == null ? null : productDto.getName().getBytes(StandardCharsets.UTF_8);
+        long price = productDto.getPrice() == null ? NULL
+                : productDto.getPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        byte flags = productDto.getAvailability() == null ? AVAILABILITY_UNKNOWN
+                : productDto.getAvailability() ? AVAILABLE : 0;
+
+        lock.writeLock().lock();
+        try {
+            int bucket = bucketOf(id);
+            int base;
+            if (bucket >= 0) {
+                base = slots[bucket] * RECORD_SIZE;
+                if (records.getLong(base + VERSION) > version) {
+                    return;
+                }
+                replaceName(base, name);
+            } else {
+                int slot = allocateSlot();
+                insert(id, slot);
+                base = slot * RECORD_SIZE;
+                appendName(base, name);
+            }
+            records.putLong(base + PRICE, price);
+            records.putLong(base + CREATED_AT, micros(productDto.getCreatedAt()));
+            records.putLong(base + UPDATED_AT, micros(productDto.getUpdatedAt()));
+            records.putLong(base + VERSION, version);
+            records.put(base + FLAGS, flags);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int bucket = bucketOf(id);
+            if (bucket < 0) {
+                return;
+            }
+            int slot = slots[bucket];
+            namesGarbage += Math.max(records.getInt(slot * RECORD_SIZE + NAME_LENGTH), 0);
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+            removeBucket(bucket);
+            int position = Arrays.binarySearch(sortedIds, 0, size, id);
+            System.arraycopy(sortedIds, position + 1, sortedIds, position, size - position - 1);
+            size--;
+            compactNamesIfWasteful();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private ProductDto read(long id, int slot) {
+        int base = slot * RECORD_SIZE;
+        int nameLength = records.getInt(base + NAME_LENGTH);
+        String name = null;
+        if (nameLength != NULL_NAME) {
+            byte[] bytes = new byte[nameLength];
+            names.get(records.getInt(base + NAME_OFFSET), bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+        }
+        long price = records.getLong(base + PRICE);
+        long version = records.getLong(base + VERSION);
+        byte flags = records.get(base + FLAGS);
+
+        return new ProductDto(id, name,
+                price == NULL ? null : BigDecimal.valueOf(price, PRICE_SCALE),
+                (flags & AVAILABILITY_UNKNOWN) != 0 ? null : (flags & AVAILABLE) != 0,
+                time(records.getLong(base + CREATED_AT)),
+                time(records.getLong(base + UPDATED_AT)),
+                version == NULL ? null : version);
+    }
+
+    private int bucketOf(long id) {
+        int mask = keys.length - 1;
+        for (int bucket = hash(id, mask); ; bucket = (bucket + 1) & mask) {
+            long key = keys[bucket];
+            if (key == id) {
+                return bucket;
+            }
+            if (key == FREE) {
+                return -1;
+            }
+        }
+    }
+
+    private void insert(long id, int slot) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int bucket = hash(id, mask);
+        while (keys[bucket] != FREE) {
+            bucket = (bucket + 1) & mask;
+        }
+        keys[bucket] = id;
+        slots[bucket] = slot;
+
+        if (size == sortedIds.length) {
+            sortedIds = Arrays.copyOf(sortedIds, sortedIds.length * 2);
+        }
+        // Ids are mostly created in increasing order, which keeps this an append
+        int position = size == 0 || sortedIds[size - 1] < id ? size
+                : -(Arrays.binarySearch(sortedIds, 0, size, id) + 1);
+        System.arraycopy(sortedIds, position, sortedIds, position + 1, size - position);
+        sortedIds[position] = id;
+        size++;
+    }
+
+    private void removeBucket(int bucket) {
+        // Backward-shift deletion keeps every probe chain contiguous without tombstones
+        int mask = keys.length - 1;
+        int hole = bucket;
+        for (int next = (hole + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = hash(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        keys[hole] = FREE;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[capacity];
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int bucket = hash(oldKeys[i], mask);
+                while (keys[bucket] != FREE) {
+                    bucket = (bucket + 1) & mask;
+                }
+                keys[bucket] = oldKeys[i];
+                slots[bucket] = oldSlots[i];
+            }
+        }
+    }
+
+    private static int hash(long id, int mask) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if ((long) (allocatedSlots + 1) * RECORD_SIZE > records.capacity()) {
+            records = grow(records, (long) records.capacity() * 2);
+        }
+
+        return allocatedSlots++;
+    }
+
+    private void replaceName(int base, byte[] name) {
+        int length = records.getInt(base + NAME_LENGTH);
+        if (name == null ? length == NULL_NAME : length == name.length && nameEquals(base, name)) {
+            return;
+        }
+        namesGarbage += Math.max(length, 0);
+        appendName(base, name);
+        compactNamesIfWasteful();
+    }
+
+    private boolean nameEquals(int base, byte[] name) {
+        int offset = records.getInt(base + NAME_OFFSET);
+        for (int i = 0; i < name.length; i++) {
+            if (names.get(offset + i) != name[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void appendName(int base, byte[] name) {
+        if (name == null) {
+            records.putInt(base + NAME_OFFSET, 0);
+            records.putInt(base + NAME_LENGTH, NULL_NAME);
+            return;
+        }
+        if ((long) namesUsed + name.length > names.capacity()) {
+            names = grow(names, Math.max((long) names.capacity() * 2, (long) namesUsed + name.length));
+        }
+        names.put(namesUsed, name);
+        records.putInt(base + NAME_OFFSET, namesUsed);
+        records.putInt(base + NAME_LENGTH, name.length);
+        namesUsed += name.length;
+    }
+
+    private void compactNamesIfWasteful() {
+        if (namesGarbage <= namesUsed / 2) {
+            return;
+        }
+        ByteBuffer compacted = ByteBuffer.allocateDirect(names.capacity());
+        int used = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == FREE) {
+                continue;
+            }
+            int base = slots[i] * RECORD_SIZE;
+            int length = records.getInt(base + NAME_LENGTH);
+            if (length > 0) {
+                compacted.put(used, names, records.getInt(base + NAME_OFFSET), length);
+                records.putInt(base + NAME_OFFSET, used);
+                used += length;
+            }
+        }
+        names = compacted;
+        namesUsed = used;
+        namesGarbage = 0;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, long capacity) {
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Product index cannot grow beyond 2 GB per buffer");
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect((int) capacity);
+        grown.put(0, buffer, 0, buffer.capacity());
+
+        return grown;
+    }
+
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return NULL;
+        }
+
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime time(long micros) {
+        if (micros == NULL) {
+            return null;
+        }
+
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
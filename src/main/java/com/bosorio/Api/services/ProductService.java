@@ -2,21 +2,55 @@ package com.bosorio.Api.services;
 
 
 import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.dto.ProductSearchDto;
+import com.bosorio.Api.dto.ProductSyncDto;
+import org.springframework.data.domain.Page;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductService {
 
-    void create(ProductDto productDto);
+    ProductDto create(ProductDto productDto);
 
-    List<ProductDto> getAll();
+    void createAll(List<ProductDto> productDtos);
+
+    List<ProductDto> getPage(Long after, int limit);
+
+    void streamAll(Consumer<ProductDto> consumer);
+
+    ProductSyncDto getChangesSince(LocalDateTime changedSince, Long after, int limit);
 
     ProductDto getById(Long id);
 
-    void update(ProductDto productDto, Long id);
+    Optional<ProductDto> findById(Long id);
+
+    Page<ProductDto> search(ProductSearchDto productSearchDto);
+
+    default void update(ProductDto productDto, Long id) {
+        update(productDto, id, null);
+    }
+
+    void update(ProductDto productDto, Long id, Long expectedVersion);
+
+    void updateAll(List<ProductDto> productDtos);
+
+    default void updateAvailability(Long id) {
+        updateAvailability(id, null);
+    }
+
+    void updateAvailability(Long id, Long expectedVersion);
+
+    void updateAvailabilityAll(List<Long> ids);
+
+    default void delete(Long id) {
+        delete(id, null);
+    }
 
-    void updateAvailability(Long id);
+    void delete(Long id, Long expectedVersion);
 
-    void delete(Long id);
+    void deleteAll(List<Long> ids);
 
 }
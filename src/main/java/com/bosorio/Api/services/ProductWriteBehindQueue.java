@@ -0,0 +1,280 @@
+package com.bosorio.Api.services;
+
+import com.bosorio.Api.dto.WriteBehindStatusDto;
+import com.bosorio.Api.entities.WriteBehindCheckpoint;
+import com.bosorio.Api.repositories.WriteBehindCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts availability toggles into a memory-mapped append log and applies them to the database in batches.
+ * <p>
+ * The log is a ring of {@code (product id, sequence)} records. The last applied sequence is committed in
+ * {@code write_behind_checkpoints} in the same transaction as the toggles, so replaying the log after a crash
+ * never flips a product twice. Toggles commute, so repeated toggles of one id collapse to their parity and
+ * the order of the batch does not matter.
+ * <p>
+ * The file starts with a header holding the checkpoint name and the ring capacity, so a container recreated with
+ * another host name on the same volume keeps resuming from the checkpoint the file was written against.
+ */
+@Service
+@Profile("!reactive")
+@ConditionalOnProperty(name = "write-behind.products.enabled", havingValue = "true")
+public class ProductWriteBehindQueue {
+
+    private static final int RECORD_SIZE = 2 * Long.BYTES;
+
+    private static final long MAGIC = 0x5052445457424c31L;
+
+    private static final int HEADER_SIZE = 256;
+
+    private static final int MAX_NAME_LENGTH = HEADER_SIZE - Long.BYTES - 2 * Integer.BYTES;
+
+    private final ProductService productService;
+
+    private final WriteBehindCheckpointRepository checkpointRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final String checkpointName;
+
+    private final int capacity;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer log;
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-write-behind").daemon().factory());
+
+    private final Object flushLock = new Object();
+
+    private final Counter appliedToggles;
+
+    private final Counter overflows;
+
+    private final Counter failedFlushes;
+
+    private Map<Long, Integer> pending = new HashMap<>();
+
+    private long lastSequence;
+
+    private long appliedSequence;
+
+    private long pendingSince;
+
+    private long flushingSince;
+
+    @Autowired
+    public ProductWriteBehindQueue(ProductService productService,
+                                   WriteBehindCheckpointRepository checkpointRepository,
+                                   PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                   @Value("${write-behind.products.path:data/product-availability.log}") Path path,
+                                   @Value("${write-behind.products.capacity:1048576}") int capacity,
+                                   @Value("${write-behind.products.flush-interval:200ms}") Duration flushInterval,
+                                   @Value("${write-behind.products.node-id:${HOSTNAME:local}}") String nodeId) {
+        this.productService = productService;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        boolean created;
+        try {
+            if (path.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(path.toAbsolutePath().getParent());
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+            created = log.getLong(0) == 0;
+            this.checkpointName = created ? writeHeader("product-availability:" + nodeId) : readHeader(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.appliedToggles = meterRegistry.counter("product.writebehind.applied");
+        this.overflows = meterRegistry.counter("product.writebehind.overflow");
+        this.failedFlushes = meterRegistry.counter("product.writebehind.flush.failures");
+        meterRegistry.gauge("product.writebehind.pending", this, queue -> queue.status().getPendingWrites());
+        meterRegistry.gauge("product.writebehind.lag", this, queue -> queue.status().getLagMillis() / 1000.0);
+
+        recover(created, path);
+        long interval = flushInterval.toMillis();
+        writer.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends a toggle of the product availability; returns {@code false} when the log is full.
+     */
+    public synchronized boolean append(long id) {
+        if (lastSequence - appliedSequence >= capacity) {
+            overflows.increment();
+            return false;
+        }
+        long sequence = ++lastSequence;
+        int offset = HEADER_SIZE + (int) (sequence % capacity) * RECORD_SIZE;
+        // The sequence is written last and marks the record as complete
+        log.putLong(offset, id);
+        log.putLong(offset + Long.BYTES, sequence);
+        pending.merge(id, 1, Integer::sum);
+        if (pendingSince == 0) {
+            pendingSince = System.currentTimeMillis();
+        }
+
+        return true;
+    }
+
+    public synchronized WriteBehindStatusDto status() {
+        long oldest = flushingSince == 0 ? pendingSince
+                : pendingSince == 0 ? flushingSince : Math.min(flushingSince, pendingSince);
+
+        return WriteBehindStatusDto.builder()
+                .pendingWrites(lastSequence - appliedSequence)
+                .lagMillis(oldest == 0 ? 0 : System.currentTimeMillis() - oldest)
+                .lastSequence(lastSequence)
+                .appliedSequence(appliedSequence)
+                .build();
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            applyPending();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.force();
+        channel.close();
+    }
+
+    private void applyPending() {
+        Map<Long, Integer> batch;
+        long upTo;
+        long since;
+        synchronized (this) {
+            if (lastSequence == appliedSequence) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+            upTo = lastSequence;
+            since = pendingSince;
+            flushingSince = since;
+            pendingSince = 0;
+        }
+
+        List<Long> ids = batch.entrySet().stream()
+                .filter(entry -> entry.getValue() % 2 != 0)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+        try {
+            log.force();
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!ids.isEmpty()) {
+                    productService.updateAvailabilityAll(ids);
+                }
+                checkpointRepository.save(new WriteBehindCheckpoint(checkpointName, upTo));
+            });
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            synchronized (this) {
+                batch.forEach((id, toggles) -> pending.merge(id, toggles, Integer::sum));
+                pendingSince = pendingSince == 0 ? since : Math.min(since, pendingSince);
+                flushingSince = 0;
+            }
+            return;
+        }
+        synchronized (this) {
+            appliedSequence = upTo;
+            flushingSince = 0;
+        }
+        appliedToggles.increment(ids.size());
+    }
+
+    private String writeHeader(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Write-behind node id is too long: " + name);
+        }
+        log.putInt(Long.BYTES, capacity);
+        log.putInt(Long.BYTES + Integer.BYTES, bytes.length);
+        log.put(Long.BYTES + 2 * Integer.BYTES, bytes);
+        // The magic is written last and marks the header as complete
+        log.putLong(0, MAGIC);
+        log.force();
+
+        return name;
+    }
+
+    private String readHeader(Path path) {
+        int length = log.getInt(Long.BYTES + Integer.BYTES);
+        if (log.getLong(0) != MAGIC || length < 0 || length > MAX_NAME_LENGTH) {
+            throw new IllegalStateException(path + " is not a write-behind log");
+        }
+        if (log.getInt(Long.BYTES) != capacity) {
+            throw new IllegalStateException(path + " was written with capacity " + log.getInt(Long.BYTES)
+                    + ", not " + capacity);
+        }
+        byte[] bytes = new byte[length];
+        log.get(Long.BYTES + 2 * Integer.BYTES, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void recover(boolean created, Path path) {
+        appliedSequence = checkpointRepository.findById(checkpointName)
+                .map(WriteBehindCheckpoint::getAppliedSequence)
+                .orElse(0L);
+        lastSequence = appliedSequence;
+        long highestSequence = 0;
+        // A slot is only reused once its previous record is applied, so every newer record is still pending
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = HEADER_SIZE + slot * RECORD_SIZE;
+            long sequence = log.getLong(offset + Long.BYTES);
+            highestSequence = Math.max(highestSequence, sequence);
+            if (sequence > appliedSequence) {
+                pending.merge(log.getLong(offset), 1, Integer::sum);
+                lastSequence = Math.max(lastSequence, sequence);
+            }
+        }
+        // The checkpoint is only ever advanced to a sequence written in this file; a newer one belongs elsewhere
+        if (!created && highestSequence < appliedSequence) {
+            throw new IllegalStateException(path + " ends at sequence " + highestSequence + " but checkpoint "
+                    + checkpointName + " is at " + appliedSequence);
+        }
+        if (!pending.isEmpty()) {
+            pendingSince = System.currentTimeMillis();
+        }
+    }
+}
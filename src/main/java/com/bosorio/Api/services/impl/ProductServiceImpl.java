@@ -1,40 +1,148 @@
 package com.bosorio.Api.services.impl;
 
 import com.bosorio.Api.Exceptions.BadRequestException;
+import com.bosorio.Api.Exceptions.GoneException;
 import com.bosorio.Api.Exceptions.InternalServerErrorException;
 import com.bosorio.Api.Exceptions.NotFoundException;
+import com.bosorio.Api.Exceptions.PreconditionFailedException;
+import com.bosorio.Api.configs.CacheConfig;
+import com.bosorio.Api.dto.ProductChangeEvent;
 import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.dto.ProductSearchDto;
+import com.bosorio.Api.dto.ProductSyncDto;
 import com.bosorio.Api.entities.Product;
+import com.bosorio.Api.entities.ProductTombstone;
 import com.bosorio.Api.repositories.ProductRepository;
+import com.bosorio.Api.repositories.ProductSpecifications;
+import com.bosorio.Api.repositories.ProductTombstoneRepository;
+import com.bosorio.Api.services.ProductCatalogSnapshot;
+import com.bosorio.Api.services.ProductChangeFeed;
+import com.bosorio.Api.services.ProductIndex;
 import com.bosorio.Api.services.ProductService;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
+@Timed(value = "product.service", histogram = true, percentiles = {0.5, 0.99})
 public class ProductServiceImpl implements ProductService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_BATCH_ITEMS = 50_000;
+
+    private static final int MAX_IN_CLAUSE_ITEMS = 1000;
+
+    static final String VERSION_MISMATCH = "Product version does not match";
+
+    private static final int INVALIDATION_STRIPES = 1024;
+
+    // Rows committed shortly before a sync may carry an older updatedAt, so the watermark trails the clock
+    static final Duration SYNC_WATERMARK_LAG = Duration.ofSeconds(5);
+
+    private static final List<String> SEARCH_MATCH_MODES = List.of("prefix", "contains");
+
+    private static final Set<String> SEARCH_SORT_PROPERTIES = Set.of("id", "name", "price", "availability",
+            "createdAt", "updatedAt");
+
     private final ProductRepository productRepository;
 
+    private final ProductTombstoneRepository tombstoneRepository;
+
+    private final EntityManager entityManager;
+
+    private final Cache productCache;
+
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+
+    private final Map<Long, CompletableFuture<ProductDto>> pendingLoads = new ConcurrentHashMap<>();
+
+    private final Counter coalescedLoads;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize = 50;
+
+    @Value("${sync.products.tombstone-retention:30d}")
+    private Duration tombstoneRetention = Duration.ofDays(30);
+
+    private final MeterRegistry meterRegistry;
+
+    private final ProductChangeFeed changeFeed;
+
+    private final ProductCatalogSnapshot catalogSnapshot;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final TransactionTemplate primaryRead;
+
+    private final ProductIndex productIndex;
+
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, ProductTombstoneRepository tombstoneRepository,
+                              EntityManager entityManager, CacheManager cacheManager, MeterRegistry meterRegistry,
+                              ProductChangeFeed changeFeed, ProductCatalogSnapshot catalogSnapshot,
+                              PlatformTransactionManager transactionManager,
+                              ObjectProvider<ProductIndex> productIndex) {
         this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.entityManager = entityManager;
+        this.productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        this.meterRegistry = meterRegistry;
+        this.changeFeed = changeFeed;
+        this.catalogSnapshot = catalogSnapshot;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Not read-only, so with read replicas cache fills go to the primary: a lagging replica would put the
+        // row back as it was before the write that evicted it
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.productIndex = productIndex.getIfAvailable();
+        this.coalescedLoads = meterRegistry.counter("product.get.coalesced");
     }
 
     @Override
     @Transactional
-    public void create(ProductDto productDto) {
-        if (productDto.getName() == null || productDto.getName().isBlank()) {
-            throw new BadRequestException("Name cannot be blank");
-        }
-        if (productDto.getPrice() == null || productDto.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new BadRequestException("Price must be greater than zero");
-        }
+    public ProductDto create(ProductDto productDto) {
+        validate(productDto);
         Product product = Product.builder()
                 .name(productDto.getName())
                 .price(productDto.getPrice())
@@ -46,98 +154,515 @@ public class ProductServiceImpl implements ProductService {
         } catch (RuntimeException e) {
             throw new InternalServerErrorException(e.getMessage());
         }
+        publishAfterCommit(List.of(changeEvent(ProductChangeEvent.CREATED, product.getId(), toDto(product))));
+
+        return toDto(product);
+    }
+
+    @Override
+    @Transactional
+    public void createAll(List<ProductDto> productDtos) {
+        validateBatchSize(productDtos);
+        recordBatchSize("create", productDtos);
+        for (int i = 0; i < productDtos.size(); i++) {
+            validate(productDtos.get(i), i);
+        }
+
+        List<ProductChangeEvent> events = new ArrayList<>(productDtos.size());
+        try {
+            for (int i = 0; i < productDtos.size(); i++) {
+                ProductDto productDto = productDtos.get(i);
+                Product product = Product.builder()
+                        .name(productDto.getName())
+                        .price(productDto.getPrice())
+                        .build();
+                productRepository.save(product);
+                events.add(changeEvent(ProductChangeEvent.CREATED, product.getId(), toDto(product)));
+                flushAndClearAtBatchBoundary(i + 1);
+            }
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            throw new InternalServerErrorException(e.getMessage());
+        }
+        publishAfterCommit(events);
     }
 
+    // Not @Transactional: reads served by the product index must not take a pooled connection
     @Override
-    public List<ProductDto> getAll() {
-        List<Product> products = (List<Product>) productRepository.findAll();
-        List<ProductDto> productDtos = new ArrayList<>();
-        products.forEach(product -> {
-            productDtos.add(ProductDto.builder()
-                    .id(product.getId())
-                    .name(product.getName())
-                    .price(product.getPrice())
-                    .availability(product.getAvailability())
-                    .createdAt(product.getCreatedAt())
-                    .updatedAt(product.getUpdatedAt())
-                    .build());
+    public List<ProductDto> getPage(Long after, int limit) {
+        validatePage(after, limit);
+        if (productIndex != null) {
+            return productIndex.getPage(after == null ? 0L : after, limit);
+        }
+
+        return productRepository.findDtoPage(after == null ? 0L : after, Limit.of(limit));
+    }
+
+    @Override
+    public void streamAll(Consumer<ProductDto> consumer) {
+        if (productIndex != null) {
+            productIndex.forEach(consumer);
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductDto> productDtos = productRepository.streamAllDtos()) {
+                productDtos.forEach(consumer);
+            }
         });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSyncDto getChangesSince(LocalDateTime changedSince, Long after, int limit) {
+        validatePage(after, limit);
+        LocalDateTime now = LocalDateTime.now();
+        if (changedSince.isBefore(now.minus(tombstoneRetention))) {
+            throw new GoneException("Changes are only kept for " + tombstoneRetention.toDays()
+                    + " days, fetch the full catalog instead");
+        }
+
+        // Without a cursor, rows changed exactly at changedSince were already returned by the previous sync
+        List<ProductDto> productDtos = productRepository.findDtosUpdatedAfter(changedSince,
+                after == null ? Long.MAX_VALUE : after, Limit.of(limit));
+        if (productDtos.size() < limit) {
+            return ProductSyncDto.builder()
+                    .products(productDtos)
+                    .deletedIds(tombstoneRepository.findProductIdsDeletedAfter(changedSince))
+                    .syncedAt(now.minus(SYNC_WATERMARK_LAG))
+                    .build();
+        }
+        // A full page ends at its last change: deletions up to it go with the page and the next one resumes there
+        LocalDateTime until = productDtos.get(limit - 1).getUpdatedAt();
 
-        return productDtos;
+        return ProductSyncDto.builder()
+                .products(productDtos)
+                .deletedIds(tombstoneRepository.findProductIdsDeletedBetween(changedSince, until))
+                .syncedAt(until)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${sync.products.tombstone-purge-interval:PT1H}",
+            initialDelayString = "${sync.products.tombstone-purge-interval:PT1H}")
+    @Transactional
+    public void purgeTombstones() {
+        tombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
     }
 
     @Override
     public ProductDto getById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Product not found"));
+        return findById(id).orElseThrow(() -> new NotFoundException("Product not found"));
+    }
 
-        return ProductDto.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .price(product.getPrice())
-                .availability(product.getAvailability())
-                .createdAt(product.getCreatedAt())
-                .updatedAt(product.getUpdatedAt())
-                .build();
+    @Override
+    public Optional<ProductDto> findById(Long id) {
+        if (productIndex != null) {
+            return productIndex.findById(id);
+        }
+        ProductDto cached = productCache.get(id, ProductDto.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        CompletableFuture<ProductDto> load = new CompletableFuture<>();
+        CompletableFuture<ProductDto> pending = pendingLoads.putIfAbsent(id, load);
+        if (pending != null) {
+            coalescedLoads.increment();
+            return Optional.ofNullable(join(pending));
+        }
+
+        try {
+            int stripe = invalidationStripe(id);
+            long stamp = invalidations.get(stripe);
+            // Missing ids complete the load with null so probes for unknown ids never throw
+            ProductDto productDto = primaryRead.execute(status -> productRepository.findDtoById(id).orElse(null));
+            if (productDto != null) {
+                productCache.put(id, productDto);
+                if (invalidations.get(stripe) != stamp) {
+                    productCache.evict(id);
+                }
+            }
+            load.complete(productDto);
+
+            return Optional.ofNullable(productDto);
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingLoads.remove(id, load);
+        }
+    }
+
+    private static ProductDto join(CompletableFuture<ProductDto> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     @Override
-    @Transactional
-    public void update(ProductDto productDto, Long id) {
-        ProductDto productToUpdate = getById(id);
-        if (productDto.getName() == null || productDto.getName().isBlank()) {
-            throw new BadRequestException("Name cannot be blank");
+    @Transactional(readOnly = true)
+    public Page<ProductDto> search(ProductSearchDto productSearchDto) {
+        if (productSearchDto.getPage() < 0) {
+            throw new BadRequestException("Page must not be negative");
         }
-        if (productDto.getPrice() == null || productDto.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new BadRequestException("Price must be greater than zero");
+        if (productSearchDto.getSize() < 1 || productSearchDto.getSize() > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_PAGE_SIZE);
         }
-        Product product = Product.builder()
-                .id(id)
-                .name(productDto.getName())
-                .price(productDto.getPrice())
-                .availability(productToUpdate.getAvailability())
-                .createdAt(productToUpdate.getCreatedAt())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        PageRequest pageRequest = PageRequest.of(productSearchDto.getPage(), productSearchDto.getSize(),
+                searchSort(productSearchDto.getSort()));
+
+        return productRepository.findDtos(searchSpecification(productSearchDto), pageRequest);
+    }
 
+    @Override
+    @Transactional
+    public void update(ProductDto productDto, Long id, Long expectedVersion) {
+        validate(productDto);
+        int updated;
         try {
-            productRepository.save(product);
+            updated = productRepository.updateDetails(id, productDto.getName(), productDto.getPrice(),
+                    LocalDateTime.now(), expectedVersion);
         } catch (RuntimeException e) {
             throw new InternalServerErrorException(e.getMessage());
         }
+        if (updated == 0) {
+            throw notFoundOrVersionMismatch(id, expectedVersion);
+        }
+        evictAfterCommit(List.of(id));
+        publishAfterCommit(List.of(changeEvent(ProductChangeEvent.UPDATED, id, null)));
+    }
+
+    @Override
+    @Transactional
+    public void updateAll(List<ProductDto> productDtos) {
+        validateBatchSize(productDtos);
+        recordBatchSize("update", productDtos);
+        Map<Long, ProductDto> productDtosById = new LinkedHashMap<>();
+        for (int i = 0; i < productDtos.size(); i++) {
+            ProductDto productDto = productDtos.get(i);
+            if (productDto.getId() == null) {
+                throw new BadRequestException("Product at index " + i + ": Id cannot be null");
+            }
+            validate(productDto, i);
+            if (productDtosById.put(productDto.getId(), productDto) != null) {
+                throw new BadRequestException("Product at index " + i + ": Duplicated id " + productDto.getId());
+            }
+        }
+        List<Long> ids = new ArrayList<>(productDtosById.keySet());
+        List<ProductChangeEvent> events = new ArrayList<>(ids.size());
 
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            List<Product> products = findAllExisting(chunk);
+            LocalDateTime now = LocalDateTime.now();
+            products.forEach(product -> {
+                ProductDto productDto = productDtosById.get(product.getId());
+                if (productDto.getVersion() != null && !productDto.getVersion().equals(product.getVersion())) {
+                    throw new PreconditionFailedException(VERSION_MISMATCH + ": " + product.getId());
+                }
+                product.setName(productDto.getName());
+                product.setPrice(productDto.getPrice());
+                product.setUpdatedAt(now);
+            });
+            try {
+                entityManager.flush();
+                entityManager.clear();
+            } catch (RuntimeException e) {
+                throw new InternalServerErrorException(e.getMessage());
+            }
+            products.forEach(product ->
+                    events.add(changeEvent(ProductChangeEvent.UPDATED, product.getId(), toDto(product))));
+        }
+        evictAfterCommit(ids);
+        publishAfterCommit(events);
     }
 
     @Override
     @Transactional
-    public void updateAvailability(Long id) {
-        ProductDto productToUpdate = getById(id);
-        Product product = Product.builder()
-                .id(id)
-                .name(productToUpdate.getName())
-                .price(productToUpdate.getPrice())
-                .availability(!productToUpdate.getAvailability())
-                .createdAt(productToUpdate.getCreatedAt())
-                .updatedAt(LocalDateTime.now())
-                .build();
+    public void updateAvailability(Long id, Long expectedVersion) {
+        int updated;
+        try {
+            updated = productRepository.toggleAvailability(id, LocalDateTime.now(), expectedVersion);
+        } catch (RuntimeException e) {
+            throw new InternalServerErrorException(e.getMessage());
+        }
+        if (updated == 0) {
+            throw notFoundOrVersionMismatch(id, expectedVersion);
+        }
+        evictAfterCommit(List.of(id));
+        publishAfterCommit(List.of(changeEvent(ProductChangeEvent.AVAILABILITY, id, null)));
+    }
 
+    @Override
+    @Transactional
+    public void updateAvailabilityAll(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        List<ProductChangeEvent> events = new ArrayList<>(distinctIds.size());
+        LocalDateTime now = LocalDateTime.now();
         try {
-            productRepository.save(product);
+            for (int from = 0; from < distinctIds.size(); from += MAX_IN_CLAUSE_ITEMS) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(from + MAX_IN_CLAUSE_ITEMS, distinctIds.size()));
+                productRepository.toggleAvailabilityAll(chunk, now);
+                chunk.forEach(id -> events.add(changeEvent(ProductChangeEvent.AVAILABILITY, id, null)));
+            }
         } catch (RuntimeException e) {
             throw new InternalServerErrorException(e.getMessage());
         }
+        evictAfterCommit(distinctIds);
+        publishAfterCommit(events);
     }
 
     @Override
     @Transactional
-    public void delete(Long id) {
+    public void delete(Long id, Long expectedVersion) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Product not found"));
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new PreconditionFailedException(VERSION_MISMATCH);
+        }
 
         try {
             productRepository.delete(product);
+            entityManager.persist(tombstone(id, LocalDateTime.now()));
         } catch (RuntimeException e) {
             throw new InternalServerErrorException(e.getMessage());
         }
+        evictAfterCommit(List.of(id));
+        publishAfterCommit(List.of(changeEvent(ProductChangeEvent.DELETED, id, null)));
+    }
+
+    @Override
+    @Transactional
+    public void deleteAll(List<Long> ids) {
+        validateBatchSize(ids);
+        recordBatchSize("delete", ids);
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        if (distinctIds.contains(null)) {
+            throw new BadRequestException("Ids cannot be null");
+        }
+
+        for (int from = 0; from < distinctIds.size(); from += batchSize) {
+            List<Product> products = findAllExisting(distinctIds.subList(from, Math.min(from + batchSize, distinctIds.size())));
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                productRepository.deleteAll(products);
+                products.forEach(product -> entityManager.persist(tombstone(product.getId(), now)));
+                entityManager.flush();
+                entityManager.clear();
+            } catch (RuntimeException e) {
+                throw new InternalServerErrorException(e.getMessage());
+            }
+        }
+        evictAfterCommit(distinctIds);
+        publishAfterCommit(distinctIds.stream()
+                .map(id -> changeEvent(ProductChangeEvent.DELETED, id, null))
+                .toList());
+    }
+
+    private static Specification<Product> searchSpecification(ProductSearchDto productSearchDto) {
+        List<Specification<Product>> specifications = new ArrayList<>();
+        String name = productSearchDto.getName();
+        if (name != null && !name.isBlank()) {
+            String match = productSearchDto.getMatch() == null ? "contains" : productSearchDto.getMatch();
+            switch (match) {
+                case "prefix" -> specifications.add(ProductSpecifications.nameStartsWith(name.trim()));
+                case "contains" -> specifications.add(ProductSpecifications.nameContains(name.trim()));
+                default -> throw new BadRequestException("Match must be one of " + SEARCH_MATCH_MODES);
+            }
+        }
+        BigDecimal minPrice = productSearchDto.getMinPrice();
+        BigDecimal maxPrice = productSearchDto.getMaxPrice();
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BadRequestException("Min price cannot be greater than max price");
+        }
+        if (minPrice != null) {
+            specifications.add(ProductSpecifications.priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            specifications.add(ProductSpecifications.priceAtMost(maxPrice));
+        }
+        if (productSearchDto.getAvailable() != null) {
+            specifications.add(ProductSpecifications.availability(productSearchDto.getAvailable()));
+        }
+
+        return Specification.allOf(specifications);
+    }
+
+    private static Sort searchSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SEARCH_SORT_PROPERTIES.contains(property)) {
+            throw new BadRequestException("Sort must be one of " + SEARCH_SORT_PROPERTIES);
+        }
+        if (parts.length > 2) {
+            throw new BadRequestException("Sort must have the form property,direction");
+        }
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (parts.length == 2) {
+            direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                    .orElseThrow(() -> new BadRequestException("Sort direction must be asc or desc"));
+        }
+        Sort result = Sort.by(direction, property);
+
+        return property.equals("id") ? result : result.and(Sort.by("id"));
+    }
+
+    private RuntimeException notFoundOrVersionMismatch(Long id, Long expectedVersion) {
+        if (expectedVersion != null && productRepository.existsById(id)) {
+            return new PreconditionFailedException(VERSION_MISMATCH);
+        }
+
+        return new NotFoundException("Product not found");
+    }
+
+    private List<Product> findAllExisting(List<Long> ids) {
+        List<Product> products = new ArrayList<>(ids.size());
+        productRepository.findAllById(ids).forEach(products::add);
+        if (products.size() != ids.size()) {
+            Set<Long> missing = new LinkedHashSet<>(ids);
+            products.forEach(product -> missing.remove(product.getId()));
+            throw new NotFoundException("Products not found: " + missing);
+        }
+
+        return products;
+    }
+
+    private void flushAndClearAtBatchBoundary(int count) {
+        if (count % batchSize == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    private void recordBatchSize(String operation, List<?> items) {
+        DistributionSummary.builder("product.batch.items")
+                .description("Number of items per batch request")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(items.size());
+    }
+
+    private static void validateBatchSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("Batch cannot be empty");
+        }
+        if (items.size() > MAX_BATCH_ITEMS) {
+            throw new BadRequestException("Batch cannot contain more than " + MAX_BATCH_ITEMS + " items");
+        }
+    }
+
+    static void validatePage(Long after, int limit) {
+        if (after != null && after < 0) {
+            throw new BadRequestException("Cursor must not be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    static void validate(ProductDto productDto) {
+        String error = validationError(productDto);
+        if (error != null) {
+            throw new BadRequestException(error);
+        }
+    }
+
+    private static void validate(ProductDto productDto, int index) {
+        String error = validationError(productDto);
+        if (error != null) {
+            throw new BadRequestException("Product at index " + index + ": " + error);
+        }
+    }
+
+    private static String validationError(ProductDto productDto) {
+        if (productDto == null) {
+            return "Product cannot be null";
+        }
+        if (productDto.getName() == null || productDto.getName().isBlank()) {
+            return "Name cannot be blank";
+        }
+        if (productDto.getPrice() == null || productDto.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Price must be greater than zero";
+        }
+
+        return null;
+    }
+
+    private void evictAfterCommit(Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.forEach(this::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(ProductServiceImpl.this::evict);
+            }
+        });
+    }
+
+    private void publishAfterCommit(List<ProductChangeEvent> events) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(events);
+            }
+        });
+    }
+
+    private void publish(List<ProductChangeEvent> events) {
+        if (productIndex != null) {
+            productIndex.apply(events);
+        }
+        changeFeed.publish(events);
+        catalogSnapshot.invalidate();
+    }
+
+    private static ProductChangeEvent changeEvent(String type, Long id, ProductDto productDto) {
+        return ProductChangeEvent.builder()
+                .type(type)
+                .productId(id)
+                .product(productDto)
+                .build();
+    }
+
+    private static ProductTombstone tombstone(Long id, LocalDateTime deletedAt) {
+        return ProductTombstone.builder()
+                .productId(id)
+                .deletedAt(deletedAt)
+                .build();
+    }
+
+    private void evict(Long id) {
+        invalidations.incrementAndGet(invalidationStripe(id));
+        // Lookups arriving after a commit must not join a load that may have read the previous state
+        pendingLoads.remove(id);
+        productCache.evict(id);
+    }
+
+    private static int invalidationStripe(Long id) {
+        return Long.hashCode(id) & (INVALIDATION_STRIPES - 1);
+    }
+
+    private ProductDto toDto(Product product) {
+        return ProductDto.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .price(product.getPrice())
+                .availability(product.getAvailability())
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt())
+                .version(product.getVersion())
+                .build();
     }
 }
@@ -0,0 +1,16 @@
+-- Idempotent so it can also run on databases previously managed by ddl-auto=update
+CREATE TABLE IF NOT EXISTS products (
+    id           BIGINT PRIMARY KEY,
+    name         VARCHAR(255),
+    price        NUMERIC(38, 2),
+    availability BOOLEAN,
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    version      BIGINT NOT NULL DEFAULT 0
+);
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('products_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM products), false);
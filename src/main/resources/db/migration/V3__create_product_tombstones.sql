@@ -0,0 +1,8 @@
+CREATE INDEX IF NOT EXISTS idx_products_updated_at ON products (updated_at);
+
+CREATE TABLE IF NOT EXISTS product_tombstones (
+    product_id BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_tombstones_deleted_at ON product_tombstones (deleted_at);
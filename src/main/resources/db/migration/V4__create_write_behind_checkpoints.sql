@@ -0,0 +1,4 @@
+CREATE TABLE IF NOT EXISTS write_behind_checkpoints (
+    name             VARCHAR(255) PRIMARY KEY,
+    applied_sequence BIGINT NOT NULL
+);
@@ -0,0 +1,49 @@
+package com.bosorio.Api.configs;
+
+import com.bosorio.Api.controllers.ProductHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig implements WebFluxConfigurer {
+
+    @Value("${cors.origin}")
+    private String corsOrigin;
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping("/**")
+                .allowedOrigins(corsOrigin)
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE")
+                .allowCredentials(true);
+    }
+
+    // Tomcat is also on the classpath for the servlet stack; serve the reactive stack from Netty
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> productRoutes(ProductHandler productHandler) {
+        return RouterFunctions.route()
+                .path("/api/products", builder -> builder
+                        .GET("", productHandler::getAll)
+                        .GET("/export", productHandler::export)
+                        .GET("/{id}", productHandler::getById)
+                        .POST("", productHandler::create)
+                        .PUT("/{id}", productHandler::update)
+                        .PATCH("/{id}", productHandler::updateAvailability)
+                        .DELETE("/{id}", productHandler::delete))
+                .build();
+    }
+}
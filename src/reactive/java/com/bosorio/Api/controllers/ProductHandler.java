@@ -0,0 +1,147 @@
+package com.bosorio.Api.controllers;
+
+import com.bosorio.Api.Exceptions.BadRequestException;
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.services.ReactiveProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Profile("reactive")
+public class ProductHandler {
+
+    private final ReactiveProductService productService;
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ProductHandler(ReactiveProductService productService, MeterRegistry meterRegistry) {
+        this.productService = productService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return productBody(request)
+                .flatMap(productService::create)
+                .then(ServerResponse.status(HttpStatus.CREATED).bodyValue("Product created successfully"))
+                .onErrorResume(RuntimeException.class, this::handleException);
+    }
+
+    public Mono<ServerResponse> getAll(ServerRequest request) {
+        return Mono.defer(() -> {
+                    Long after = request.queryParam("after").map(ProductHandler::parseLong).orElse(null);
+                    int limit = request.queryParam("limit").map(ProductHandler::parseLong).orElse(100L).intValue();
+                    if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+                        return ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .body(productService.getPage(after, limit), ProductDto.class);
+                    }
+
+                    return productService.getPage(after, limit).collectList()
+                            .flatMap(productDtos -> pageResponse(productDtos, limit));
+                })
+                .onErrorResume(RuntimeException.class, this::handleException);
+    }
+
+    public Mono<ServerResponse> export(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productService.streamAll(), ProductDto.class);
+    }
+
+    public Mono<ServerResponse> getById(ServerRequest request) {
+        return Mono.defer(() -> productService.getById(pathId(request)))
+                .flatMap(productDto -> {
+                    String eTag = String.valueOf(productDto.getVersion());
+
+                    return request.checkNotModified(eTag)
+                            .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                                    .eTag(eTag)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .bodyValue(productDto)));
+                })
+                .onErrorResume(RuntimeException.class, this::handleException);
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        return Mono.defer(() -> {
+                    long id = pathId(request);
+                    Long expectedVersion = ProductController.expectedVersion(
+                            request.headers().firstHeader(HttpHeaders.IF_MATCH));
+
+                    return productBody(request)
+                            .flatMap(productDto -> productService.update(productDto, id, expectedVersion));
+                })
+                .then(ServerResponse.ok().bodyValue("Product updated successfully"))
+                .onErrorResume(RuntimeException.class, this::handleException);
+    }
+
+    public Mono<ServerResponse> updateAvailability(ServerRequest request) {
+        return Mono.defer(() -> productService.updateAvailability(pathId(request),
+                        ProductController.expectedVersion(request.headers().firstHeader(HttpHeaders.IF_MATCH))))
+                .then(ServerResponse.ok().bodyValue("Product availability updated successfully"))
+                .onErrorResume(RuntimeException.class, this::handleException);
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        return Mono.defer(() -> productService.delete(pathId(request),
+                        ProductController.expectedVersion(request.headers().firstHeader(HttpHeaders.IF_MATCH))))
+                .then(ServerResponse.ok().bodyValue("Product deleted successfully"))
+                .onErrorResume(RuntimeException.class, this::handleException);
+    }
+
+    private static Mono<ServerResponse> pageResponse(List<ProductDto> productDtos, int limit) {
+        ServerResponse.BodyBuilder response = ServerResponse.ok().contentType(MediaType.APPLICATION_JSON);
+        if (productDtos.size() == limit) {
+            response.header(ProductController.NEXT_CURSOR_HEADER,
+                    String.valueOf(productDtos.get(limit - 1).getId()));
+        }
+
+        return response.bodyValue(productDtos);
+    }
+
+    private static Mono<ProductDto> productBody(ServerRequest request) {
+        return request.bodyToMono(ProductDto.class)
+                .switchIfEmpty(Mono.error(() -> new BadRequestException("Product cannot be null")));
+    }
+
+    private static long pathId(ServerRequest request) {
+        return parseLong(request.pathVariable("id"));
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid number: " + value);
+        }
+    }
+
+    private Mono<ServerResponse> handleException(RuntimeException e) {
+        if (e instanceof ResponseStatusException) {
+            return Mono.error(e);
+        }
+        Map<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+
+        HttpStatus status = ProductExceptionHandler.errorStatus(e);
+        meterRegistry.counter("product.api.errors",
+                "exception", e.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(error);
+    }
+}
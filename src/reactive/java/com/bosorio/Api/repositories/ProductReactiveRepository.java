@@ -0,0 +1,168 @@
+package com.bosorio.Api.repositories;
+
+import com.bosorio.Api.dto.ProductDto;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+@Profile("reactive")
+public class ProductReactiveRepository {
+
+    private static final String SELECT = "select id, name, price, availability, created_at, updated_at, version "
+            + "from products ";
+
+    private static final String VERSION_CONDITION = " and version = :version";
+
+    private static final String UPDATE_DETAILS = "update products set name = :name, price = :price, "
+            + "updated_at = :updatedAt, version = version + 1 where id = :id";
+
+    private static final String TOGGLE_AVAILABILITY = "update products set availability = not availability, "
+            + "updated_at = :updatedAt, version = version + 1 where id = :id";
+
+    private static final String DELETE = "delete from products where id = :id";
+
+    private static final String INSERT_TOMBSTONE = "insert into product_tombstones (product_id, deleted_at) "
+            + "values (:id, :deletedAt)";
+
+    // Same block size as the JPA pooled generator so both stacks can share products_seq
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    private final Object idBlockLock = new Object();
+
+    private long nextId = 1;
+
+    private long maxId = 0;
+
+    @Autowired
+    public ProductReactiveRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<ProductDto> findById(long id) {
+        return databaseClient.sql(SELECT + "where id = :id")
+                .bind("id", id)
+                .map(ProductReactiveRepository::toDto)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(long id) {
+        return databaseClient.sql("select count(*) from products where id = :id")
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(count -> count > 0);
+    }
+
+    public Flux<ProductDto> findPage(long after, int limit) {
+        return databaseClient.sql(SELECT + "where id > :after order by id limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ProductReactiveRepository::toDto)
+                .all();
+    }
+
+    public Flux<ProductDto> streamAll() {
+        return databaseClient.sql(SELECT + "order by id")
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .map(ProductReactiveRepository::toDto)
+                .all();
+    }
+
+    public Mono<Long> insert(String name, BigDecimal price, LocalDateTime now) {
+        return nextId().flatMap(id -> databaseClient.sql("insert into products "
+                        + "(id, name, price, availability, created_at, updated_at, version) "
+                        + "values (:id, :name, :price, true, :createdAt, :updatedAt, 0)")
+                .bind("id", id)
+                .bind("name", name)
+                .bind("price", price)
+                .bind("createdAt", now)
+                .bind("updatedAt", now)
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(id));
+    }
+
+    public Mono<Long> updateDetails(long id, String name, BigDecimal price, LocalDateTime updatedAt, Long version) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql(version == null ? UPDATE_DETAILS : UPDATE_DETAILS + VERSION_CONDITION)
+                .bind("id", id)
+                .bind("name", name)
+                .bind("price", price)
+                .bind("updatedAt", updatedAt);
+
+        return withVersion(spec, version).fetch().rowsUpdated();
+    }
+
+    public Mono<Long> toggleAvailability(long id, LocalDateTime updatedAt, Long version) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql(version == null ? TOGGLE_AVAILABILITY : TOGGLE_AVAILABILITY + VERSION_CONDITION)
+                .bind("id", id)
+                .bind("updatedAt", updatedAt);
+
+        return withVersion(spec, version).fetch().rowsUpdated();
+    }
+
+    public Mono<Long> delete(long id, Long version) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql(version == null ? DELETE : DELETE + VERSION_CONDITION)
+                .bind("id", id);
+
+        return withVersion(spec, version).fetch().rowsUpdated();
+    }
+
+    public Mono<Long> insertTombstone(long id, LocalDateTime deletedAt) {
+        return databaseClient.sql(INSERT_TOMBSTONE)
+                .bind("id", id)
+                .bind("deletedAt", deletedAt)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Long> nextId() {
+        synchronized (idBlockLock) {
+            if (nextId <= maxId) {
+                return Mono.just(nextId++);
+            }
+        }
+
+        return databaseClient.sql("select nextval('products_seq')")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(hi -> {
+                    synchronized (idBlockLock) {
+                        nextId = Math.max(1, hi - SEQUENCE_INCREMENT + 1);
+                        maxId = hi;
+
+                        return nextId++;
+                    }
+                });
+    }
+
+    private static DatabaseClient.GenericExecuteSpec withVersion(DatabaseClient.GenericExecuteSpec spec,
+                                                                 Long version) {
+        return version == null ? spec : spec.bind("version", version);
+    }
+
+    private static ProductDto toDto(Readable row) {
+        return new ProductDto(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("price", BigDecimal.class),
+                row.get("availability", Boolean.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,23 @@
+package com.bosorio.Api.services;
+
+import com.bosorio.Api.dto.ProductDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveProductService {
+
+    Mono<Void> create(ProductDto productDto);
+
+    Flux<ProductDto> getPage(Long after, int limit);
+
+    Flux<ProductDto> streamAll();
+
+    Mono<ProductDto> getById(Long id);
+
+    Mono<Void> update(ProductDto productDto, Long id, Long expectedVersion);
+
+    Mono<Void> updateAvailability(Long id, Long expectedVersion);
+
+    Mono<Void> delete(Long id, Long expectedVersion);
+
+}
@@ -0,0 +1,106 @@
+package com.bosorio.Api.services.impl;
+
+import com.bosorio.Api.Exceptions.BadRequestException;
+import com.bosorio.Api.Exceptions.InternalServerErrorException;
+import com.bosorio.Api.Exceptions.NotFoundException;
+import com.bosorio.Api.Exceptions.PreconditionFailedException;
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.repositories.ProductReactiveRepository;
+import com.bosorio.Api.services.ReactiveProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Service
+@Profile("reactive")
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+    private final ProductReactiveRepository productRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    @Autowired
+    public ReactiveProductServiceImpl(ProductReactiveRepository productRepository,
+                                      TransactionalOperator transactionalOperator) {
+        this.productRepository = productRepository;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @Override
+    public Mono<Void> create(ProductDto productDto) {
+        return Mono.fromRunnable(() -> ProductServiceImpl.validate(productDto))
+                .then(Mono.defer(() -> productRepository.insert(productDto.getName(), productDto.getPrice(),
+                        LocalDateTime.now())))
+                .onErrorMap(ReactiveProductServiceImpl::isDatabaseError,
+                        e -> new InternalServerErrorException(e.getMessage()))
+                .then();
+    }
+
+    @Override
+    public Flux<ProductDto> getPage(Long after, int limit) {
+        ProductServiceImpl.validatePage(after, limit);
+
+        return productRepository.findPage(after == null ? 0L : after, limit);
+    }
+
+    @Override
+    public Flux<ProductDto> streamAll() {
+        return productRepository.streamAll();
+    }
+
+    @Override
+    public Mono<ProductDto> getById(Long id) {
+        return productRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Product not found")));
+    }
+
+    @Override
+    public Mono<Void> update(ProductDto productDto, Long id, Long expectedVersion) {
+        return Mono.fromRunnable(() -> ProductServiceImpl.validate(productDto))
+                .then(Mono.defer(() -> productRepository.updateDetails(id, productDto.getName(),
+                        productDto.getPrice(), LocalDateTime.now(), expectedVersion)))
+                .onErrorMap(ReactiveProductServiceImpl::isDatabaseError,
+                        e -> new InternalServerErrorException(e.getMessage()))
+                .flatMap(updated -> updated == 0 ? notFoundOrVersionMismatch(id, expectedVersion) : Mono.empty());
+    }
+
+    @Override
+    public Mono<Void> updateAvailability(Long id, Long expectedVersion) {
+        return productRepository.toggleAvailability(id, LocalDateTime.now(), expectedVersion)
+                .onErrorMap(ReactiveProductServiceImpl::isDatabaseError,
+                        e -> new InternalServerErrorException(e.getMessage()))
+                .flatMap(updated -> updated == 0 ? notFoundOrVersionMismatch(id, expectedVersion) : Mono.empty());
+    }
+
+    @Override
+    public Mono<Void> delete(Long id, Long expectedVersion) {
+        return productRepository.delete(id, expectedVersion)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.just(deleted)
+                        : productRepository.insertTombstone(id, LocalDateTime.now()).thenReturn(deleted))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(ReactiveProductServiceImpl::isDatabaseError,
+                        e -> new InternalServerErrorException(e.getMessage()))
+                .flatMap(deleted -> deleted == 0 ? notFoundOrVersionMismatch(id, expectedVersion) : Mono.empty());
+    }
+
+    private Mono<Void> notFoundOrVersionMismatch(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(new NotFoundException("Product not found"));
+        }
+
+        return productRepository.existsById(id)
+                .flatMap(exists -> Mono.error(exists
+                        ? new PreconditionFailedException(ProductServiceImpl.VERSION_MISMATCH)
+                        : new NotFoundException("Product not found")));
+    }
+
+    private static boolean isDatabaseError(Throwable e) {
+        return !(e instanceof BadRequestException);
+    }
+}
@@ -0,0 +1,21 @@
+package com.bosorio.Api.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class ReactiveProductApiContractTest extends ProductApiContractTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Override
+    protected WebTestClient webTestClient() {
+        return webTestClient;
+    }
+}
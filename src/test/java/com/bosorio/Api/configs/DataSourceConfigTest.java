@@ -0,0 +1,58 @@
+package com.bosorio.Api.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicated",
+        "datasource.replicas.enabled=true",
+        "datasource.replicas.urls=jdbc:h2:mem:replicated",
+        "datasource.replicas.read-your-writes-window=1m"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class DataSourceConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Test reads use the replica pool until the client writes")
+    void testReadsUseReplicaUntilClientWrites() throws Exception {
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk());
+        long replicaReads = replicaAcquisitions();
+        assertTrue(replicaReads > 0);
+
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Replicated Product\", \"price\": 10}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Replicated Product"));
+
+        assertEquals(replicaReads, replicaAcquisitions());
+    }
+
+    private long replicaAcquisitions() {
+        return meterRegistry.get("hikaricp.connections.acquire").tag("pool", "replica-1").timer().count();
+    }
+}
@@ -0,0 +1,183 @@
+package com.bosorio.Api.configs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotencyStore store;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Test a repeated key is answered with the first response without running the request again")
+    void testRepeatedKeyIsReplayed() throws Exception {
+        IdempotencyFilter filter = filter(null);
+
+        MockHttpServletResponse first = perform(filter, "key-1", "{\"name\":\"A\"}", created());
+        MockHttpServletResponse retry = perform(filter, "key-1", "{\"name\":\"A\"}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals("/api/products/1", retry.getHeader(HttpHeaders.LOCATION));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertNull(first.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals(1, meterRegistry.counter("product.api.idempotency.replays").count());
+    }
+
+    @Test
+    @DisplayName("Test reusing a key for a different request is rejected")
+    void testKeyReusedForDifferentBodyIsRejected() throws Exception {
+        IdempotencyFilter filter = filter(null);
+        perform(filter, "key-1", "{\"name\":\"A\"}", created());
+
+        MockHttpServletResponse response = perform(filter, "key-1", "{\"name\":\"B\"}", created());
+
+        assertEquals(422, response.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Test a retry from a new client address is answered with the first response")
+    void testRetryFromNewAddressIsReplayed() throws Exception {
+        IdempotencyFilter filter = filter(null);
+        perform(filter, "10.0.0.1", "key-1", "{}", created());
+
+        MockHttpServletResponse retry = perform(filter, "10.0.0.2", "key-1", "{}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals("/api/products/1", retry.getHeader(HttpHeaders.LOCATION));
+    }
+
+    @Test
+    @DisplayName("Test server errors are not remembered and the retry runs")
+    void testServerErrorsAreNotRemembered() throws Exception {
+        IdempotencyFilter filter = filter(null);
+        perform(filter, "key-1", "{}", (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(500);
+        });
+
+        MockHttpServletResponse retry = perform(filter, "key-1", "{}", created());
+
+        assertEquals(201, retry.getStatus());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    @DisplayName("Test a concurrent repeat waits for the first request and gets its response")
+    void testConcurrentRepeatWaitsForFirstRequest() throws Exception {
+        IdempotencyFilter filter = filter(null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            created().doFilter(request, response);
+        };
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return perform(filter, "key-1", "{}", slow);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MockHttpServletResponse> retry = CompletableFuture.supplyAsync(() -> {
+            try {
+                return perform(filter, "key-1", "{}", created());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(retry.isDone());
+        release.countDown();
+
+        assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals("true", retry.get(5, TimeUnit.SECONDS).getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Test remembered responses survive a restart when the store has a file")
+    void testResponsesSurviveRestart(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("idempotency.log");
+        perform(filter(path), "key-1", "{}", created());
+        store.close();
+
+        MockHttpServletResponse retry = perform(filter(path), "key-1", "{}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals("/api/products/1", retry.getHeader(HttpHeaders.LOCATION));
+        assertEquals(1, store.size());
+    }
+
+    private IdempotencyFilter filter(Path path) {
+        store = new IdempotencyStore(Duration.ofHours(1), 1000, path, meterRegistry);
+
+        return new IdempotencyFilter(store, Duration.ofSeconds(5), meterRegistry);
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(201);
+            httpResponse.setHeader(HttpHeaders.LOCATION, "/api/products/" + executions.get());
+            httpResponse.setContentType("text/plain");
+            httpResponse.getWriter().write("Product created successfully");
+        };
+    }
+
+    private static MockHttpServletResponse perform(IdempotencyFilter filter, String key, String body,
+                                                   FilterChain chain) throws Exception {
+        return perform(filter, "127.0.0.1", key, body, chain);
+    }
+
+    private static MockHttpServletResponse perform(IdempotencyFilter filter, String remoteAddress, String key,
+                                                   String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/products");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+
+        return response;
+    }
+}
@@ -0,0 +1,24 @@
+package com.bosorio.Api.configs;
+
+import com.bosorio.Api.entities.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeConfigTest {
+
+    @Test
+    @DisplayName("Test the native image keeps the entity reflection and the OpenAPI document")
+    void testHintsAreRegistered() {
+        RuntimeHints hints = new RuntimeHints();
+        new NativeConfig.ApiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource(OpenApiDocumentGenerator.COMPRESSED_DOCUMENT).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Product.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Product.class, "getName").test(hints));
+    }
+}
@@ -0,0 +1,81 @@
+package com.bosorio.Api.configs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AtomicInteger poolPending;
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        poolPending = new AtomicInteger();
+        filter = new RateLimitFilter(Map.of(
+                RateLimitFilter.Route.DEFAULT, new RateLimitFilter.Budget(5, 1),
+                RateLimitFilter.Route.LIST, new RateLimitFilter.Budget(2, 1),
+                RateLimitFilter.Route.BULK, new RateLimitFilter.Budget(1, 1)),
+                100, 4, poolPending::get, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Test requests over the bucket capacity are rejected with too many requests")
+    void testBurstOverCapacityIsRejected() throws Exception {
+        assertEquals(200, perform("GET", "/api/products", "10.0.0.1").getStatus());
+        assertEquals(200, perform("GET", "/api/products", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse response = perform("GET", "/api/products", "10.0.0.1");
+
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, meterRegistry.get("product.api.rejected").tag("route", "list").counter().count());
+    }
+
+    @Test
+    @DisplayName("Test budgets are kept per client and per route")
+    void testBudgetsArePerClientAndRoute() throws Exception {
+        perform("GET", "/api/products", "10.0.0.1");
+        perform("GET", "/api/products", "10.0.0.1");
+
+        assertEquals(200, perform("GET", "/api/products", "10.0.0.2").getStatus());
+        assertEquals(200, perform("GET", "/api/products/1", "10.0.0.1").getStatus());
+        assertEquals(200, perform("POST", "/api/products/batch", "10.0.0.1").getStatus());
+        assertEquals(429, perform("DELETE", "/api/products/batch", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    @DisplayName("Test list and bulk routes are shed while requests wait for database connections")
+    void testLoadIsShedWhenPoolIsSaturated() throws Exception {
+        poolPending.set(4);
+
+        MockHttpServletResponse response = perform("GET", "/api/products/search", "10.0.0.1");
+
+        assertEquals(503, response.getStatus());
+        assertEquals(200, perform("GET", "/api/products/1", "10.0.0.1").getStatus());
+        assertEquals(1, meterRegistry.get("product.api.rejected").tag("status", "503").counter().count());
+    }
+
+    private MockHttpServletResponse perform(String method, String path, String client) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        return response;
+    }
+}
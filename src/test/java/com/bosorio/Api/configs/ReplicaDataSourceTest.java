@@ -0,0 +1,139 @@
+package com.bosorio.Api.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaDataSourceTest {
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Test read-only transactions go to the replica and the rest to the primary")
+    void testReadOnlyTransactionsUseReplica() {
+        HikariDataSource primary = database("primary");
+        Routing routing = routing(primary, List.of(database("replica")));
+
+        assertEquals("replica", routing.nodeName(true));
+        assertEquals("primary", routing.nodeName(false));
+        assertEquals("primary", new JdbcTemplate(routing.dataSource).queryForObject("select name from node",
+                String.class));
+    }
+
+    @Test
+    @DisplayName("Test reads fail over to the next replica and then to the primary")
+    void testReadsFailOver() {
+        HikariDataSource primary = database("primary");
+        HikariDataSource replica = database("replica");
+        Routing routing = routing(primary, List.of(unreachable(), replica));
+
+        assertEquals("replica", routing.nodeName(true));
+        assertEquals("replica", routing.nodeName(true));
+        assertEquals(1, routing.replicas.healthyReplicas());
+
+        replica.close();
+        routing.replicas.checkHealth();
+
+        assertEquals(0, routing.replicas.healthyReplicas());
+        assertEquals("primary", routing.nodeName(true));
+        assertTrue(meterRegistry.counter("datasource.replicas.fallbacks").count() > 0);
+    }
+
+    @Test
+    @DisplayName("Test pinned requests read from the primary")
+    void testPinnedReadsUsePrimary() {
+        Routing routing = routing(database("primary"), List.of(database("replica")));
+
+        ReplicaDataSource.pinPrimary();
+        try {
+            assertEquals("primary", routing.nodeName(true));
+        } finally {
+            ReplicaDataSource.unpinPrimary();
+        }
+        assertEquals("replica", routing.nodeName(true));
+    }
+
+    @Test
+    @DisplayName("Test pool monitoring sees the primary through the routing proxy")
+    void testUnwrapReturnsPrimary() throws Exception {
+        HikariDataSource primary = database("primary");
+        Routing routing = routing(primary, List.of(database("replica")));
+
+        assertSame(primary, routing.dataSource.unwrap(HikariDataSource.class));
+    }
+
+    @Test
+    @DisplayName("Test connections with other credentials are refused with an SQL exception")
+    void testOtherCredentialsAreNotSupported() {
+        Routing routing = routing(database("primary"), List.of(database("replica")));
+
+        assertThrows(SQLFeatureNotSupportedException.class,
+                () -> routing.replicas().getConnection("other", "secret"));
+    }
+
+    private Routing routing(HikariDataSource primary, List<HikariDataSource> replicas) {
+        ReplicaDataSource replicaDataSource = new ReplicaDataSource(primary, replicas, Duration.ofHours(1),
+                meterRegistry);
+        resources.add(replicaDataSource);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+
+        return new Routing(dataSource, replicaDataSource);
+    }
+
+    private HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        resources.add(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(16))");
+        jdbcTemplate.update("insert into node values (?)", name);
+
+        return dataSource;
+    }
+
+    private HikariDataSource unreachable() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:tcp://localhost:1/unreachable");
+        dataSource.setConnectionTimeout(250);
+        dataSource.setInitializationFailTimeout(-1);
+        resources.add(dataSource);
+
+        return dataSource;
+    }
+
+    private record Routing(LazyConnectionDataSourceProxy dataSource, ReplicaDataSource replicas) {
+
+        String nodeName(boolean readOnly) {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(
+                    new DataSourceTransactionManager(dataSource));
+            transactionTemplate.setReadOnly(readOnly);
+
+            return transactionTemplate.execute(status ->
+                    new JdbcTemplate(dataSource).queryForObject("select name from node", String.class));
+        }
+    }
+}
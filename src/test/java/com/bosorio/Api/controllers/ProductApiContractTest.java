@@ -0,0 +1,209 @@
+package com.bosorio.Api.controllers;
+
+import com.bosorio.Api.dto.ProductDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HTTP contract of /api/products shared by the servlet and the reactive stacks.
+ */
+abstract class ProductApiContractTest {
+
+    private static final String BASE_URL = "/api/products";
+
+    protected abstract WebTestClient webTestClient();
+
+    @Test
+    @DisplayName("Test creating a product and reading it back")
+    void testCreateAndGetProduct() {
+        ProductDto product = createProduct(BigDecimal.valueOf(1500));
+
+        webTestClient().get().uri(BASE_URL + "/" + product.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(product.getName())
+                .jsonPath("$.price").isEqualTo(1500)
+                .jsonPath("$.availability").isEqualTo(true);
+    }
+
+    @Test
+    @DisplayName("Test creating an invalid product returns bad request")
+    void testCreateInvalidProduct() {
+        webTestClient().post().uri(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ProductDto.builder().name("Invalid").price(BigDecimal.ZERO).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Price must be greater than zero");
+    }
+
+    @Test
+    @DisplayName("Test getting a product that does not exist returns not found")
+    void testGetProductNotFound() {
+        webTestClient().get().uri(BASE_URL + "/999999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Product not found");
+    }
+
+    @Test
+    @DisplayName("Test getting a product with a matching If-None-Match returns not modified")
+    void testGetProductNotModified() {
+        ProductDto product = createProduct(BigDecimal.valueOf(100));
+
+        webTestClient().get().uri(BASE_URL + "/" + product.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("Test paging products with a cursor")
+    void testGetPageWithCursor() {
+        createProduct(BigDecimal.valueOf(100));
+        createProduct(BigDecimal.valueOf(200));
+
+        String cursor = webTestClient().get().uri(BASE_URL + "?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductDto.class).hasSize(1)
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(ProductController.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        List<ProductDto> next = webTestClient().get().uri(BASE_URL + "?limit=1&after=" + cursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductDto.class).hasSize(1)
+                .returnResult()
+                .getResponseBody();
+        assertTrue(next.get(0).getId() > Long.parseLong(cursor));
+
+        webTestClient().get().uri(BASE_URL + "?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Test updating a product honours If-Match")
+    void testUpdateProduct() {
+        ProductDto product = createProduct(BigDecimal.valueOf(100));
+        ProductDto update = ProductDto.builder().name(product.getName() + " updated").price(BigDecimal.TEN).build();
+
+        webTestClient().put().uri(BASE_URL + "/" + product.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(update)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Product updated successfully");
+
+        webTestClient().put().uri(BASE_URL + "/" + product.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(update)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient().get().uri(BASE_URL + "/" + product.getId())
+                .exchange()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(update.getName());
+    }
+
+    @Test
+    @DisplayName("Test toggling the availability of a product")
+    void testUpdateAvailability() {
+        ProductDto product = createProduct(BigDecimal.valueOf(100));
+
+        webTestClient().patch().uri(BASE_URL + "/" + product.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Product availability updated successfully");
+
+        webTestClient().get().uri(BASE_URL + "/" + product.getId())
+                .exchange()
+                .expectBody()
+                .jsonPath("$.availability").isEqualTo(false);
+
+        webTestClient().patch().uri(BASE_URL + "/999999")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Test deleting a product")
+    void testDeleteProduct() {
+        ProductDto product = createProduct(BigDecimal.valueOf(100));
+
+        webTestClient().delete().uri(BASE_URL + "/" + product.getId())
+                .header(HttpHeaders.IF_MATCH, "\"5\"")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient().delete().uri(BASE_URL + "/" + product.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Product deleted successfully");
+
+        webTestClient().delete().uri(BASE_URL + "/" + product.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Test exporting products as NDJSON")
+    void testExportProducts() {
+        ProductDto product = createProduct(BigDecimal.valueOf(100));
+
+        List<ProductDto> exported = webTestClient().get().uri(BASE_URL + "/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProductDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertNotNull(exported);
+        assertTrue(exported.stream().anyMatch(productDto -> productDto.getId().equals(product.getId())));
+    }
+
+    private ProductDto createProduct(BigDecimal price) {
+        String name = "Contract " + UUID.randomUUID();
+        webTestClient().post().uri(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ProductDto.builder().name(name).price(price).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class).isEqualTo("Product created successfully");
+
+        List<ProductDto> products = webTestClient().get().uri(BASE_URL + "?limit=1000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductDto.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(products);
+
+        return products.stream()
+                .filter(productDto -> productDto.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -1,23 +1,39 @@
 package com.bosorio.Api.controllers;
 
+import com.bosorio.Api.configs.IdempotencyFilter;
 import com.bosorio.Api.dto.ProductDto;
 import com.bosorio.Api.repositories.ProductRepository;
 import com.bosorio.Api.services.ProductService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class ProductControllerIntegrationTest {
 
@@ -33,6 +49,12 @@ public class ProductControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
     private final String BASE_URL = "/api/products";
 
     @BeforeEach
@@ -122,4 +144,509 @@ public class ProductControllerIntegrationTest {
                 .andExpect(content().string("Product deleted successfully"));
     }
 
+    @Test
+    @Order(7)
+    @DisplayName("Test get products page with cursor")
+    void testGetProductsPageWithCursor() throws Exception {
+        ProductDto productDto = ProductDto.builder()
+                .name("Second Product")
+                .price(BigDecimal.valueOf(2500))
+                .build();
+        productService.create(productDto);
+
+        MvcResult result = mockMvc.perform(get(BASE_URL).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Test Product"))
+                .andExpect(header().exists(ProductController.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        String cursor = result.getResponse().getHeader(ProductController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get(BASE_URL).param("limit", "1").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Second Product"));
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Test get products page with invalid limit")
+    void testGetProductsPageWithInvalidLimit() throws Exception {
+        mockMvc.perform(get(BASE_URL).param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Test export products as NDJSON")
+    void testExportProducts() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(org.hamcrest.Matchers.startsWith("{\"id\":")))
+                .andExpect(content().string(org.hamcrest.Matchers.endsWith("}\n")));
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Test get product by id reflects update after caching")
+    void testGetProductByIdReflectsUpdate() throws Exception {
+        Long id = productRepository.findAll().iterator().next().getId();
+        mockMvc.perform(get(BASE_URL + "/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Test Product"));
+
+        ProductDto productDto = ProductDto.builder()
+                .name("Cached Product updated")
+                .price(BigDecimal.valueOf(1800))
+                .build();
+        mockMvc.perform(put(BASE_URL + "/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDto)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(BASE_URL + "/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Cached Product updated"))
+                .andExpect(jsonPath("$.price").value(1800));
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("Test create products in batch")
+    void testCreateProductsInBatch() throws Exception {
+        List<ProductDto> productDtos = IntStream.range(0, 45)
+                .mapToObj(i -> ProductDto.builder()
+                        .name("Batch Product " + i)
+                        .price(BigDecimal.valueOf(100 + i))
+                        .build())
+                .toList();
+
+        mockMvc.perform(post(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDtos)))
+                .andExpect(status().isCreated())
+                .andExpect(content().string("Products created successfully"));
+
+        Assertions.assertEquals(46, productRepository.count());
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("Test create products in batch with invalid item")
+    void testCreateProductsInBatchWithInvalidItem() throws Exception {
+        List<ProductDto> productDtos = List.of(
+                ProductDto.builder().name("Batch Product").price(BigDecimal.valueOf(100)).build(),
+                ProductDto.builder().name("Batch Product").price(BigDecimal.ZERO).build());
+
+        mockMvc.perform(post(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDtos)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Product at index 1: Price must be greater than zero"));
+
+        Assertions.assertEquals(1, productRepository.count());
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("Test update and delete products in batch")
+    void testUpdateAndDeleteProductsInBatch() throws Exception {
+        Long id = productRepository.findAll().iterator().next().getId();
+        List<ProductDto> productDtos = List.of(ProductDto.builder()
+                .id(id)
+                .name("Batch Product updated")
+                .price(BigDecimal.valueOf(900))
+                .build());
+
+        mockMvc.perform(put(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDtos)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Products updated successfully"));
+
+        mockMvc.perform(get(BASE_URL + "/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Batch Product updated"));
+
+        mockMvc.perform(delete(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(id, id + 1000))))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(delete(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(id))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Products deleted successfully"));
+
+        Assertions.assertEquals(0, productRepository.count());
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("Test update product availability toggles and refreshes product")
+    void testUpdateProductAvailabilityToggles() throws Exception {
+        Long id = productRepository.findAll().iterator().next().getId();
+        mockMvc.perform(get(BASE_URL + "/" + id))
+                .andExpect(jsonPath("$.availability").value(true));
+
+        mockMvc.perform(patch(BASE_URL + "/" + id))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(BASE_URL + "/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availability").value(false));
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("Test update and patch product that does not exist")
+    void testUpdateAndPatchProductNotFound() throws Exception {
+        ProductDto productDto = ProductDto.builder()
+                .name("Missing Product")
+                .price(BigDecimal.valueOf(100))
+                .build();
+
+        mockMvc.perform(put(BASE_URL + "/999999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDto)))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Product not found"));
+
+        mockMvc.perform(patch(BASE_URL + "/999999"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Product not found"));
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("Test get product by id honors If-None-Match")
+    void testGetProductByIdNotModified() throws Exception {
+        Long id = productRepository.findAll().iterator().next().getId();
+        String eTag = mockMvc.perform(get(BASE_URL + "/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(BASE_URL + "/" + id).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @Order(17)
+    @DisplayName("Test conditional update, patch and delete honor If-Match")
+    void testConditionalWritesHonorIfMatch() throws Exception {
+        Long id = productRepository.findAll().iterator().next().getId();
+        ProductDto productDto = ProductDto.builder()
+                .name("Versioned Product")
+                .price(BigDecimal.valueOf(100))
+                .build();
+
+        mockMvc.perform(put(BASE_URL + "/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDto)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put(BASE_URL + "/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDto)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(patch(BASE_URL + "/" + id).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(patch(BASE_URL + "/" + id).header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete(BASE_URL + "/" + id).header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get(BASE_URL + "/" + id))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+        mockMvc.perform(delete(BASE_URL + "/" + id).header(HttpHeaders.IF_MATCH, "\"2\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @Order(18)
+    @DisplayName("Test metrics are exposed on the prometheus endpoint")
+    void testMetricsAreExposed() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/999999"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("product_service_seconds_count")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_count")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"products\"")))
+                .andExpect(content().string(containsString("exception=\"NotFoundException\"")));
+    }
+
+    @Test
+    @Order(19)
+    @DisplayName("Test searching products by name and price")
+    void testSearchProducts() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/search")
+                        .param("name", "test prod")
+                        .param("match", "prefix")
+                        .param("minPrice", "1000")
+                        .param("maxPrice", "2000")
+                        .param("sort", "price,desc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$[0].name").value("Test Product"));
+
+        mockMvc.perform(get(BASE_URL + "/search")
+                        .param("name", "product")
+                        .param("maxPrice", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "0"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @Order(20)
+    @DisplayName("Test searching products with an invalid sort returns bad request")
+    void testSearchProductsWithInvalidSort() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/search")
+                        .param("sort", "unknown,asc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(21)
+    @DisplayName("Test product changes are streamed and can be resumed with Last-Event-ID")
+    void testProductChangesStream() throws Exception {
+        MvcResult subscription = mockMvc.perform(get(BASE_URL + "/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Long id = productRepository.findAll().iterator().next().getId();
+
+        mockMvc.perform(patch(BASE_URL + "/" + id))
+                .andExpect(status().isOk());
+
+        // The event is written in several chunks, so wait for its data
+        String content = awaitContent(subscription, "\"productId\":" + id);
+        assertTrue(content.contains("event:availability"));
+        assertFalse(content.contains("\"product\":"));
+        long eventId = Long.parseLong(content.substring(content.indexOf("id:") + 3, content.indexOf('\n')));
+
+        MvcResult resumed = mockMvc.perform(get(BASE_URL + "/changes")
+                        .header(ProductController.LAST_EVENT_ID_HEADER, String.valueOf(eventId - 1)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertTrue(awaitContent(resumed, "\"productId\":" + id).contains("id:" + eventId));
+    }
+
+    @Test
+    @Order(22)
+    @DisplayName("Test syncing products changed since a timestamp returns changed rows and deleted ids")
+    void testGetChangedSince() throws Exception {
+        Long deletedId = productRepository.findAll().iterator().next().getId();
+        LocalDateTime changedSince = LocalDateTime.now();
+        productService.create(ProductDto.builder()
+                .name("Synced Product")
+                .price(BigDecimal.valueOf(2500))
+                .build());
+        mockMvc.perform(delete(BASE_URL + "/" + deletedId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(BASE_URL).param("changedSince", changedSince.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(1))
+                .andExpect(jsonPath("$.products[0].name").value("Synced Product"))
+                .andExpect(jsonPath("$.deletedIds.length()").value(1))
+                .andExpect(jsonPath("$.deletedIds[0]").value(deletedId))
+                .andExpect(jsonPath("$.syncedAt").exists());
+
+        mockMvc.perform(get(BASE_URL).param("changedSince", "2000-01-01T00:00:00"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    @Order(23)
+    @DisplayName("Test the catalog snapshot is served compressed, revalidated by ETag and refreshed after writes")
+    void testGetSnapshot() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/snapshot")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn();
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(BASE_URL + "/snapshot")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get(BASE_URL + "/snapshot")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+        mockMvc.perform(get(BASE_URL + "/snapshot")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        productService.create(ProductDto.builder()
+                .name("Snapshot Product")
+                .price(BigDecimal.valueOf(2500))
+                .build());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = "";
+        while (!content.contains("Snapshot Product") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = mockMvc.perform(get(BASE_URL + "/snapshot"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andReturn().getResponse().getContentAsString();
+        }
+        assertTrue(content.contains("Snapshot Product"), content);
+    }
+
+    @Test
+    @Order(24)
+    @DisplayName("Test the OpenAPI document generated at build time is served compressed and revalidated by ETag")
+    void testGetApiDocs() throws Exception {
+        mockMvc.perform(get("/v3/api-docs"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.openapi").value("3.0.1"))
+                .andExpect(jsonPath("$.paths['/api/products']").exists());
+
+        MvcResult result = mockMvc.perform(get("/v3/api-docs")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        mockMvc.perform(get("/v3/api-docs")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.openapi").value("3.0.1"));
+
+        mockMvc.perform(get("/v3/api-docs")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Order(25)
+    @DisplayName("Test products are written and read as CBOR and Smile")
+    void testBinaryFormats() throws Exception {
+        ObjectMapper cborMapper = cborConverter.getObjectMapper();
+        ProductDto productDto = ProductDto.builder()
+                .name("Binary Product")
+                .price(new BigDecimal("12.50"))
+                .build();
+        mockMvc.perform(post(BASE_URL)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(productDto)))
+                .andExpect(status().isCreated());
+
+        byte[] page = mockMvc.perform(get(BASE_URL).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        ProductDto created = cborMapper.readValue(page, new TypeReference<List<ProductDto>>() {}).stream()
+                .filter(product -> product.getName().equals("Binary Product"))
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals(0, new BigDecimal("12.50").compareTo(created.getPrice()));
+        Assertions.assertNotNull(created.getCreatedAt());
+
+        ObjectMapper smileMapper = smileConverter.getObjectMapper();
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+        created.setName("Binary Product updated");
+        mockMvc.perform(put(BASE_URL + "/" + created.getId())
+                        .contentType(smile)
+                        .content(smileMapper.writeValueAsBytes(created)))
+                .andExpect(status().isOk());
+
+        byte[] product = mockMvc.perform(get(BASE_URL + "/" + created.getId()).accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn().getResponse().getContentAsByteArray();
+        Assertions.assertEquals("Binary Product updated", smileMapper.readValue(product, ProductDto.class).getName());
+
+        mockMvc.perform(get(BASE_URL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @Order(26)
+    @DisplayName("Test export products as a CBOR sequence")
+    void testExportProductsAsCborSequence() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/export").accept(ProductController.APPLICATION_CBOR_SEQ))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProductController.APPLICATION_CBOR_SEQ))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (MappingIterator<ProductDto> productDtos = cborConverter.getObjectMapper()
+                .readerFor(ProductDto.class)
+                .readValues(body)) {
+            List<ProductDto> exported = productDtos.readAll();
+            Assertions.assertEquals(productRepository.count(), exported.size());
+            Assertions.assertEquals("Test Product", exported.get(0).getName());
+        }
+    }
+
+    @Test
+    @Order(27)
+    @DisplayName("Test retried creates with the same Idempotency-Key create one product")
+    void testCreateProductIsIdempotent() throws Exception {
+        String content = "{\"name\": \"Idempotent Product\", \"price\": 10}";
+        String location = mockMvc.perform(post(BASE_URL)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "create-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(content))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, containsString(BASE_URL + "/")))
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+        mockMvc.perform(post(BASE_URL)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "create-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(content))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, location))
+                .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER, "true"))
+                .andExpect(content().string("Product created successfully"));
+
+        Assertions.assertEquals(2, productRepository.count());
+        mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Idempotent Product"));
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+
+        return content;
+    }
+
 }
@@ -0,0 +1,29 @@
+package com.bosorio.Api.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:servletcontractdb")
+@AutoConfigureMockMvc
+class ServletProductApiContractTest extends ProductApiContractTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = MockMvcWebTestClient.bindTo(mockMvc).build();
+    }
+
+    @Override
+    protected WebTestClient webTestClient() {
+        return webTestClient;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bosorio.Api.dto;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductDtoSerializerTest {
+
+    @Test
+    @DisplayName("Test the product serializer writes the same JSON as the bean serializer")
+    void testSameJsonAsBeanSerializer() throws Exception {
+        List<ProductDto> productDtos = products();
+
+        assertArrayEquals(beanMapper(false).writeValueAsBytes(productDtos),
+                Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(productDtos));
+    }
+
+    @Test
+    @DisplayName("Test the product serializer writes numeric timestamps when the mapper asks for them")
+    void testNumericTimestamps() throws Exception {
+        List<ProductDto> productDtos = products();
+
+        assertArrayEquals(beanMapper(true).writeValueAsBytes(productDtos),
+                Jackson2ObjectMapperBuilder.json()
+                        .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .build()
+                        .writeValueAsBytes(productDtos));
+    }
+
+    @Test
+    @DisplayName("Test timestamps are formatted like the ISO local date-time formatter")
+    void testTimestampFormat() {
+        Random random = new Random(7);
+        char[] buffer = new char[29];
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime value = timestamp(random);
+
+            int length = ProductDtoSerializer.formatTimestamp(value, buffer);
+
+            assertEquals(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value), new String(buffer, 0, length));
+        }
+    }
+
+    private static ObjectMapper beanMapper(boolean timestamps) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(MapperFeature.USE_ANNOTATIONS);
+        if (timestamps) {
+            builder.featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
+
+        return builder.build();
+    }
+
+    private static List<ProductDto> products() {
+        Random random = new Random(42);
+        List<ProductDto> productDtos = new ArrayList<>();
+        productDtos.add(new ProductDto(null, null, null, null, null, null, null));
+        productDtos.add(new ProductDto(1L, "Comillas \" y \\ barra\nñ ⌨ 🚀", new BigDecimal("0.01"),
+                false, LocalDateTime.of(12, 1, 1, 0, 0), LocalDateTime.of(10_000, 1, 1, 0, 0), 0L));
+        for (long id = 2; id < 500; id++) {
+            productDtos.add(new ProductDto(id, "Product " + id,
+                    BigDecimal.valueOf(random.nextLong(1, 1_000_000_000L), random.nextInt(4)),
+                    random.nextBoolean(), timestamp(random), timestamp(random), random.nextLong(0, 100)));
+        }
+
+        return productDtos;
+    }
+
+    private static LocalDateTime timestamp(Random random) {
+        int nano = switch (random.nextInt(4)) {
+            case 0 -> 0;
+            case 1 -> random.nextInt(1000) * 1_000_000;
+            case 2 -> random.nextInt(1_000_000) * 1_000;
+            default -> random.nextInt(1_000_000_000);
+        };
+
+        return LocalDateTime.of(random.nextInt(1, 9999), random.nextInt(1, 13), random.nextInt(1, 29),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60), nano);
+    }
+}
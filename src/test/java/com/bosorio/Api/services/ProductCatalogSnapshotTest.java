@@ -0,0 +1,118 @@
+package com.bosorio.Api.services;
+
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.repositories.ProductRepository;
+import com.bosorio.Api.repositories.ProductTombstoneRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductCatalogSnapshotTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductCatalogSnapshot catalogSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        catalogSnapshot = new ProductCatalogSnapshot(productRepository, tombstoneRepository, transactionManager,
+                new ObjectMapper(), new SimpleMeterRegistry(), Duration.ofMillis(50), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogSnapshot.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test the snapshot holds the catalog as JSON and as gzip")
+    void testSnapshotIsSerializedAndCompressed() throws IOException {
+        when(productRepository.streamAllDtos()).thenAnswer(invocation -> Stream.of(
+                ProductDto.builder().id(1L).name("Product 1").build(),
+                ProductDto.builder().id(2L).name("Product 2").build()));
+
+        ProductCatalogSnapshot.Image image = catalogSnapshot.get();
+
+        String json = new String(image.identity(), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[{\"id\":1,\"name\":\"Product 1\""));
+        assertTrue(json.contains("{\"id\":2,\"name\":\"Product 2\""));
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(image.gzip()))) {
+            assertArrayEquals(image.identity(), gzip.readAllBytes());
+        }
+        assertSame(image, catalogSnapshot.get());
+        verify(productRepository, times(1)).streamAllDtos();
+    }
+
+    @Test
+    @DisplayName("Test a burst of invalidations causes a single rebuild with a new ETag")
+    void testInvalidationsAreCoalesced() throws InterruptedException {
+        when(productRepository.streamAllDtos())
+                .thenAnswer(invocation -> Stream.of(ProductDto.builder().id(1L).name("Product 1").build()))
+                .thenAnswer(invocation -> Stream.of(ProductDto.builder().id(1L).name("Product 1 Updated").build()));
+        String eTag = catalogSnapshot.get().eTag();
+
+        for (int i = 0; i < 100; i++) {
+            catalogSnapshot.invalidate();
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (catalogSnapshot.get().eTag().equals(eTag) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotEquals(eTag, catalogSnapshot.get().eTag());
+        Thread.sleep(200);
+        verify(productRepository, times(2)).streamAllDtos();
+    }
+
+    @Test
+    @DisplayName("Test writes made by another instance are noticed by the periodic check")
+    void testExternalWritesAreNoticed() throws InterruptedException {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 6, 1, 12, 0);
+        when(productRepository.findLastUpdatedAt()).thenReturn(Optional.of(updatedAt));
+        when(productRepository.streamAllDtos())
+                .thenAnswer(invocation -> Stream.of(ProductDto.builder().id(1L).name("Product 1").build()))
+                .thenAnswer(invocation -> Stream.of(ProductDto.builder().id(1L).name("Product 1 Updated").build()));
+        String eTag = catalogSnapshot.get().eTag();
+
+        catalogSnapshot.check();
+        Thread.sleep(200);
+        assertEquals(eTag, catalogSnapshot.get().eTag());
+
+        when(tombstoneRepository.findLastDeletedAt()).thenReturn(Optional.of(updatedAt.plusSeconds(1)));
+        catalogSnapshot.check();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (catalogSnapshot.get().eTag().equals(eTag) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotEquals(eTag, catalogSnapshot.get().eTag());
+        verify(productRepository, times(2)).streamAllDtos();
+    }
+}
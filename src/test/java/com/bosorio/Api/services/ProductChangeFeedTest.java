@@ -0,0 +1,90 @@
+package com.bosorio.Api.services;
+
+import com.bosorio.Api.dto.ProductChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeFeedTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        changeFeed = new ProductChangeFeed(4, 3, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeFeed.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test published events get increasing ids")
+    void testPublishAssignsIncreasingIds() {
+        List<ProductChangeEvent> events = events(3);
+
+        changeFeed.publish(events);
+
+        assertNotNull(events.get(0).getId());
+        assertEquals(events.get(0).getId() + 1, events.get(1).getId());
+        assertEquals(events.get(1).getId() + 1, events.get(2).getId());
+    }
+
+    @Test
+    @DisplayName("Test a subscriber that cannot keep up is dropped without blocking the publisher")
+    void testSlowSubscriberIsDropped() {
+        SseEmitter emitter = changeFeed.subscribe(null);
+        assertEquals(1, meterRegistry.get("product.changes.subscribers").gauge().value());
+
+        // Sends lock the emitter, so holding it keeps the subscriber from draining its queue
+        synchronized (emitter) {
+            changeFeed.publish(events(2));
+            changeFeed.publish(events(2));
+            changeFeed.publish(events(2));
+        }
+
+        assertEquals(1, meterRegistry.get("product.changes.dropped").counter().count());
+        assertEquals(0, meterRegistry.get("product.changes.subscribers").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Test a batch larger than a subscriber queue is published as one reset event")
+    void testLargeBatchIsPublishedAsReset() {
+        List<ProductChangeEvent> before = events(1);
+        changeFeed.publish(before);
+        changeFeed.subscribe(null);
+
+        List<ProductChangeEvent> batch = events(10);
+        changeFeed.publish(batch);
+        List<ProductChangeEvent> after = events(1);
+        changeFeed.publish(after);
+
+        assertEquals(0, meterRegistry.get("product.changes.dropped").counter().count());
+        assertEquals(1, meterRegistry.get("product.changes.subscribers").gauge().value());
+        assertNull(batch.get(0).getId());
+        assertEquals(before.get(0).getId() + 2, after.get(0).getId());
+    }
+
+    private static List<ProductChangeEvent> events(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(id -> ProductChangeEvent.builder()
+                        .type(ProductChangeEvent.DELETED)
+                        .productId((long) id)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,208 @@
+package com.bosorio.Api.services;
+
+import com.bosorio.Api.dto.ProductChangeEvent;
+import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.repositories.ProductRepository;
+import com.bosorio.Api.repositories.ProductTombstoneRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 30, 15, 123_456_000);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<ProductIndex> indexes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.streamAllDtos()).thenReturn(Stream.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        indexes.forEach(ProductIndex::shutdown);
+    }
+
+    @Test
+    @DisplayName("Test products loaded at startup are read back unchanged")
+    void testLoadedProductsAreReadBack() {
+        ProductDto plain = product(1L, "Teclado mecánico ⌨", "1500.50", 3L);
+        ProductDto empty = new ProductDto(2L, null, null, null, null, null, 0L);
+        when(productRepository.streamAllDtos()).thenReturn(Stream.of(plain, empty));
+
+        ProductIndex index = index();
+
+        assertEquals(2, index.size());
+        assertEquals(Optional.of(plain), index.findById(1L));
+        assertEquals(Optional.of(empty), index.findById(2L));
+        assertEquals(Optional.empty(), index.findById(3L));
+
+        index.apply(List.of(created(product(3L, "Product", "10.5", 0L))));
+
+        assertEquals(new BigDecimal("10.50"), index.findById(3L).map(ProductDto::getPrice).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Test pages follow the id order from the cursor")
+    void testPagesFollowIdOrder() {
+        ProductIndex index = index();
+        for (long id : new long[]{40, 10, 30, 20, 50}) {
+            index.apply(List.of(created(product(id, "Product " + id, "10.00", 0L))));
+        }
+
+        assertEquals(List.of(10L, 20L), ids(index.getPage(0, 2)));
+        assertEquals(List.of(30L, 40L, 50L), ids(index.getPage(20, 10)));
+        assertEquals(List.of(30L, 40L), ids(index.getPage(25, 2)));
+        assertEquals(List.of(), ids(index.getPage(50, 10)));
+        List<ProductDto> all = new ArrayList<>();
+        index.forEach(all::add);
+        assertEquals(List.of(10L, 20L, 30L, 40L, 50L), ids(all));
+    }
+
+    @Test
+    @DisplayName("Test committed changes update the index and older versions are ignored")
+    void testChangesAreApplied() {
+        ProductIndex index = index();
+        index.apply(List.of(created(product(1L, "Product", "10.00", 0L))));
+
+        index.apply(List.of(ProductChangeEvent.builder().type(ProductChangeEvent.UPDATED).productId(1L)
+                .product(product(1L, "Renamed", "12.00", 2L)).build()));
+        index.apply(List.of(ProductChangeEvent.builder().type(ProductChangeEvent.AVAILABILITY).productId(1L)
+                .product(product(1L, "Product", "10.00", 1L)).build()));
+
+        assertEquals("Renamed", index.findById(1L).map(ProductDto::getName).orElseThrow());
+        assertEquals(2L, index.findById(1L).map(ProductDto::getVersion).orElseThrow());
+
+        index.apply(List.of(ProductChangeEvent.builder().type(ProductChangeEvent.DELETED).productId(1L).build()));
+
+        assertEquals(Optional.empty(), index.findById(1L));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("Test changes that only name the product are read back from the repository")
+    void testChangesWithoutProductAreReadBack() {
+        ProductIndex index = index();
+        index.apply(List.of(created(product(1L, "Product", "10.00", 0L))));
+        when(productRepository.findDtosByIdIn(List.of(1L))).thenReturn(List.of(product(1L, "Product", "10.00", 1L)));
+
+        index.apply(List.of(ProductChangeEvent.builder().type(ProductChangeEvent.AVAILABILITY).productId(1L).build()));
+
+        assertEquals(1L, index.findById(1L).map(ProductDto::getVersion).orElseThrow());
+        verify(productRepository, times(1)).findDtosByIdIn(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Test the index stays consistent through growth, removals and renames")
+    void testIndexMatchesReferenceMap() {
+        ProductIndex index = index();
+        TreeMap<Long, ProductDto> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(5_000);
+            if (random.nextInt(4) == 0) {
+                index.apply(List.of(ProductChangeEvent.builder()
+                        .type(ProductChangeEvent.DELETED).productId(id).build()));
+                expected.remove(id);
+            } else {
+                ProductDto productDto = product(id, "Product " + id + "-" + i,
+                        (1 + random.nextInt(100_000)) + ".25", (long) i);
+                index.apply(List.of(created(productDto)));
+                expected.put(id, productDto);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (long id = 1; id <= 5_000; id++) {
+            assertEquals(Optional.ofNullable(expected.get(id)), index.findById(id));
+        }
+        List<ProductDto> all = new ArrayList<>();
+        index.forEach(all::add);
+        assertEquals(new ArrayList<>(expected.values()), all);
+    }
+
+    @Test
+    @DisplayName("Test a refresh applies rows and tombstones changed since the previous one")
+    void testRefreshAppliesRemoteChanges() {
+        when(productRepository.streamAllDtos()).thenReturn(Stream.of(product(1L, "Product", "10.00", 0L)));
+        ProductIndex index = index();
+        when(productRepository.findDtosUpdatedAfter(any()))
+                .thenReturn(List.of(product(2L, "Remote product", "20.00", 0L)));
+        when(tombstoneRepository.findProductIdsDeletedAfter(any())).thenReturn(List.of(1L));
+
+        index.refresh();
+
+        assertEquals(Optional.empty(), index.findById(1L));
+        assertEquals("Remote product", index.findById(2L).map(ProductDto::getName).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Test a failed refresh is counted and keeps the index")
+    void testFailedRefreshKeepsIndex() {
+        when(productRepository.streamAllDtos()).thenReturn(Stream.of(product(1L, "Product", "10.00", 0L)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductIndex index = new ProductIndex(productRepository, tombstoneRepository, transactionManager,
+                meterRegistry, Duration.ofHours(1));
+        indexes.add(index);
+        when(productRepository.findDtosUpdatedAfter(any())).thenThrow(new RuntimeException("Database is down"));
+
+        index.refresh();
+
+        assertEquals(1.0, meterRegistry.counter("product.index.refresh.failures").count());
+        assertTrue(index.findById(1L).isPresent());
+    }
+
+    private ProductIndex index() {
+        ProductIndex index = new ProductIndex(productRepository, tombstoneRepository, transactionManager,
+                new SimpleMeterRegistry(), Duration.ofHours(1));
+        indexes.add(index);
+
+        return index;
+    }
+
+    private static ProductDto product(long id, String name, String price, Long version) {
+        return new ProductDto(id, name, new BigDecimal(price), id % 2 == 0, NOW, NOW.plusSeconds(id), version);
+    }
+
+    private static ProductChangeEvent created(ProductDto productDto) {
+        return ProductChangeEvent.builder()
+                .type(ProductChangeEvent.CREATED)
+                .productId(productDto.getId())
+                .product(productDto)
+                .build();
+    }
+
+    private static List<Long> ids(List<ProductDto> productDtos) {
+        return productDtos.stream().map(ProductDto::getId).toList();
+    }
+}
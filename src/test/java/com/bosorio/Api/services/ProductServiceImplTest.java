@@ -1,26 +1,56 @@
 package com.bosorio.Api.services;
 
 import com.bosorio.Api.Exceptions.BadRequestException;
+import com.bosorio.Api.Exceptions.GoneException;
 import com.bosorio.Api.Exceptions.InternalServerErrorException;
 import com.bosorio.Api.Exceptions.NotFoundException;
+import com.bosorio.Api.Exceptions.PreconditionFailedException;
+import com.bosorio.Api.configs.CacheConfig;
+import com.bosorio.Api.dto.ProductChangeEvent;
 import com.bosorio.Api.dto.ProductDto;
+import com.bosorio.Api.dto.ProductSearchDto;
+import com.bosorio.Api.dto.ProductSyncDto;
 import com.bosorio.Api.entities.Product;
+import com.bosorio.Api.entities.ProductTombstone;
 import com.bosorio.Api.repositories.ProductRepository;
+import com.bosorio.Api.repositories.ProductTombstoneRepository;
 import com.bosorio.Api.services.impl.ProductServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class ProductServiceImplTest {
@@ -28,12 +58,38 @@ class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private ProductTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ProductChangeFeed changeFeed;
+
+    @Mock
+    private ProductCatalogSnapshot catalogSnapshot;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<ProductIndex> productIndexProvider;
+
+    @Mock
+    private ProductIndex productIndex;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private ProductServiceImpl productService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        productService = new ProductServiceImpl(productRepository, tombstoneRepository, entityManager,
+                new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE), meterRegistry, changeFeed,
+                catalogSnapshot, transactionManager, productIndexProvider);
     }
 
     @Test
@@ -73,21 +129,76 @@ class ProductServiceImplTest {
     }
 
     @Test
-    @DisplayName("Test get all products")
-    void testGetAllReturnsListOfProducts() {
-        when(productRepository.findAll()).thenReturn(Arrays.asList(new Product(), new Product()));
+    @DisplayName("Test get page of products")
+    void testGetPageReturnsListOfProducts() {
+        when(productRepository.findDtoPage(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(new ProductDto(), new ProductDto()));
+
+        assertEquals(2, productService.getPage(null, 2).size());
+    }
+
+    @Test
+    @DisplayName("Test get page after cursor")
+    void testGetPageAfterCursor() {
+        when(productRepository.findDtoPage(10L, Limit.of(5)))
+                .thenReturn(List.of(ProductDto.builder().id(11L).build()));
 
-        assertEquals(2, productService.getAll().size());
+        List<ProductDto> result = productService.getPage(10L, 5);
+
+        assertEquals(1, result.size());
+        assertEquals(11L, result.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Test get page with invalid limit throws bad request exception")
+    void testGetPageWithInvalidLimitThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> productService.getPage(null, 0));
+        assertThrows(BadRequestException.class, () -> productService.getPage(null, 1001));
+        verify(productRepository, times(0)).findDtoPage(any(), any());
+    }
+
+    @Test
+    @DisplayName("Test stream all products")
+    void testStreamAllProducts() {
+        when(productRepository.streamAllDtos())
+                .thenReturn(Stream.of(ProductDto.builder().id(1L).build(), ProductDto.builder().id(2L).build()));
+        List<ProductDto> result = new ArrayList<>();
+
+        productService.streamAll(result::add);
+
+        assertEquals(2, result.size());
+        verify(productRepository, times(0)).findAll();
+    }
+
+    @Test
+    @DisplayName("Test reads are served from the product index when it is enabled")
+    void testReadsAreServedFromProductIndex() {
+        when(productIndexProvider.getIfAvailable()).thenReturn(productIndex);
+        ProductServiceImpl indexedService = new ProductServiceImpl(productRepository, tombstoneRepository,
+                entityManager, new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE), meterRegistry, changeFeed,
+                catalogSnapshot, transactionManager, productIndexProvider);
+        ProductDto productDto = ProductDto.builder().id(1L).name("Test Product").build();
+        when(productIndex.findById(1L)).thenReturn(Optional.of(productDto));
+        when(productIndex.getPage(0L, 10)).thenReturn(List.of(productDto));
+
+        assertEquals("Test Product", indexedService.getById(1L).getName());
+        assertEquals(List.of(productDto), indexedService.getPage(null, 10));
+        indexedService.create(ProductDto.builder().name("New Product").price(BigDecimal.TEN).build());
+
+        verify(productIndex, times(1)).apply(any());
+        verify(productRepository, times(0)).findDtoById(any());
+        verify(productRepository, times(0)).findDtoPage(any(), any());
+        verifyNoInteractions(transactionManager);
     }
 
     @Test
     @DisplayName("Test get product by id")
     void testGetProductByIdReturnsProduct() {
-        Product product = Product.builder()
+        ProductDto productDto = ProductDto.builder()
                 .id(1L)
                 .name("Test Product")
                 .build();
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findDtoById(1L)).thenReturn(Optional.of(productDto));
 
         ProductDto result = productService.getById(1L);
 
@@ -95,14 +206,132 @@ class ProductServiceImplTest {
         assertEquals("Test Product", result.getName());
     }
 
+    @Test
+    @DisplayName("Test get product by id is served from cache")
+    void testGetProductByIdIsCached() {
+        ProductDto productDto = ProductDto.builder()
+                .id(1L)
+                .name("Test Product")
+                .build();
+        when(productRepository.findDtoById(1L)).thenReturn(Optional.of(productDto));
+
+        productService.getById(1L);
+        ProductDto result = productService.getById(1L);
+
+        assertEquals("Test Product", result.getName());
+        verify(productRepository, times(1)).findDtoById(1L);
+    }
+
+    @Test
+    @DisplayName("Test update product evicts cached product")
+    void testUpdateProductEvictsCachedProduct() {
+        ProductDto productDto = ProductDto.builder()
+                .id(1L)
+                .name("Test Product")
+                .price(BigDecimal.valueOf(1500))
+                .build();
+        when(productRepository.findDtoById(1L)).thenReturn(Optional.of(productDto));
+        when(productRepository.updateDetails(eq(1L), any(), any(), any(), any())).thenReturn(1);
+        productService.getById(1L);
+
+        productService.update(ProductDto.builder()
+                .name("Test Product Updated")
+                .price(BigDecimal.valueOf(1500))
+                .build(), 1L);
+        productService.getById(1L);
+
+        // Initial load and reload after eviction
+        verify(productRepository, times(2)).findDtoById(1L);
+    }
+
+    @Test
+    @DisplayName("Test concurrent lookups of the same product share one database call")
+    void testConcurrentGetByIdIsCoalesced() throws Exception {
+        ProductDto productDto = ProductDto.builder().id(1L).name("Test Product").build();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findDtoById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(productDto);
+        });
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<ProductDto>> results = new ArrayList<>();
+            results.add(executor.submit(() -> productService.getById(1L)));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> productService.getById(1L)));
+            }
+            awaitCoalescedLoads(7);
+            release.countDown();
+
+            for (Future<ProductDto> result : results) {
+                assertSame(productDto, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(productRepository, times(1)).findDtoById(1L);
+    }
+
+    @Test
+    @DisplayName("Test lookups after an update do not join a load started before it")
+    void testGetByIdAfterUpdateDoesNotJoinStaleLoad() throws Exception {
+        ProductDto stale = ProductDto.builder().id(1L).name("Test Product").build();
+        ProductDto updated = ProductDto.builder().id(1L).name("Test Product Updated").build();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(productRepository.findDtoById(1L)).thenAnswer(invocation -> {
+            if (calls.getAndIncrement() > 0) {
+                return Optional.of(updated);
+            }
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(stale);
+        });
+        when(productRepository.updateDetails(eq(1L), any(), any(), any(), any())).thenReturn(1);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<ProductDto> before = executor.submit(() -> productService.getById(1L));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            productService.update(ProductDto.builder()
+                    .name("Test Product Updated")
+                    .price(BigDecimal.valueOf(1500))
+                    .build(), 1L);
+
+            assertEquals("Test Product Updated", productService.getById(1L).getName());
+            release.countDown();
+            assertSame(stale, before.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, meterRegistry.get("product.get.coalesced").counter().count());
+    }
+
     @Test
     @DisplayName("Test get product does not exist throws not found exception")
     void testGetProductByIdDoesNotExistThrowsNotFoundException() {
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.findDtoById(1L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> productService.getById(1L));
     }
 
+    @Test
+    @DisplayName("Test find product that does not exist returns empty and is not cached")
+    void testFindProductByIdDoesNotExistReturnsEmpty() {
+        when(productRepository.findDtoById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(productService.findById(1L).isEmpty());
+        assertTrue(productService.findById(1L).isEmpty());
+
+        verify(productRepository, times(2)).findDtoById(1L);
+    }
+
     @Test
     @DisplayName("Test update product successfully")
     void testUpdateProductSuccessfully() {
@@ -113,13 +342,42 @@ class ProductServiceImplTest {
                 .build();
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.updateDetails(eq(1L), any(), any(), any(), any())).thenReturn(1);
         ProductDto updatedProduct = ProductDto.builder()
                 .name("Test Product Updated")
                 .price(BigDecimal.valueOf(1500))
                 .build();
 
         assertDoesNotThrow(() -> productService.update(updatedProduct, 1L));
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(productRepository, times(1))
+                .updateDetails(eq(1L), eq("Test Product Updated"), eq(BigDecimal.valueOf(1500)), any(), isNull());
+        verify(productRepository, times(0)).findById(1L);
+        verify(productRepository, times(0)).save(any(Product.class));
+    }
+
+    @Test
+    @DisplayName("Test update product does not exist throws not found exception")
+    void testUpdateProductDoesNotExistThrowsNotFoundException() {
+        when(productRepository.updateDetails(eq(1L), any(), any(), any(), any())).thenReturn(0);
+        ProductDto updatedProduct = ProductDto.builder()
+                .name("Test Product Updated")
+                .price(BigDecimal.valueOf(1500))
+                .build();
+
+        assertThrows(NotFoundException.class, () -> productService.update(updatedProduct, 1L));
+    }
+
+    @Test
+    @DisplayName("Test update product with stale version throws precondition failed exception")
+    void testUpdateWithStaleVersionThrowsPreconditionFailedException() {
+        when(productRepository.updateDetails(eq(1L), any(), any(), any(), eq(3L))).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        ProductDto updatedProduct = ProductDto.builder()
+                .name("Test Product Updated")
+                .price(BigDecimal.valueOf(1500))
+                .build();
+
+        assertThrows(PreconditionFailedException.class, () -> productService.update(updatedProduct, 1L, 3L));
     }
 
     @Test
@@ -138,7 +396,7 @@ class ProductServiceImplTest {
                 .build();
 
         assertThrows(BadRequestException.class, () -> productService.update(updatedProduct, 1L));
-        verify(productRepository, times(0)).save(any(Product.class));
+        verify(productRepository, times(0)).updateDetails(any(), any(), any(), any(), any());
     }
 
     @Test
@@ -157,7 +415,7 @@ class ProductServiceImplTest {
                 .build();
 
         assertThrows(BadRequestException.class, () -> productService.update(updatedProduct, 1L));
-        verify(productRepository, times(0)).save(any(Product.class));
+        verify(productRepository, times(0)).updateDetails(any(), any(), any(), any(), any());
     }
 
     @Test
@@ -171,9 +429,32 @@ class ProductServiceImplTest {
                 .build();
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.toggleAvailability(eq(1L), any(), any())).thenReturn(1);
 
         assertDoesNotThrow(() -> productService.updateAvailability(1L));
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(productRepository, times(1)).toggleAvailability(eq(1L), any(), any());
+        verify(productRepository, times(0)).findById(1L);
+        verify(productRepository, times(0)).save(any(Product.class));
+    }
+
+    @Test
+    @DisplayName("Test update availability of product that does not exist throws not found exception")
+    void testUpdateAvailabilityDoesNotExistThrowsNotFoundException() {
+        when(productRepository.toggleAvailability(eq(1L), any(), any())).thenReturn(0);
+
+        assertThrows(NotFoundException.class, () -> productService.updateAvailability(1L));
+    }
+
+    @Test
+    @DisplayName("Test update availability in batch toggles products and publishes their ids without reading them")
+    void testUpdateAvailabilityAllTogglesProducts() {
+        productService.updateAvailabilityAll(List.of(1L, 2L, 1L));
+
+        verify(productRepository, times(1)).toggleAvailabilityAll(eq(List.of(1L, 2L)), any());
+        verify(productRepository, never()).findDtosByIdIn(any());
+        verify(changeFeed, times(1)).publish(List.of(
+                ProductChangeEvent.builder().type(ProductChangeEvent.AVAILABILITY).productId(1L).build(),
+                ProductChangeEvent.builder().type(ProductChangeEvent.AVAILABILITY).productId(2L).build()));
     }
 
     @Test
@@ -185,6 +466,37 @@ class ProductServiceImplTest {
         productService.delete(1L);
 
         verify(productRepository, times(1)).delete(product);
+        verify(entityManager, times(1)).persist(argThat(tombstone ->
+                tombstone instanceof ProductTombstone && ((ProductTombstone) tombstone).getProductId() == 1L));
+        verify(catalogSnapshot, times(1)).invalidate();
+        verify(changeFeed, times(1)).publish(List.of(ProductChangeEvent.builder()
+                .type(ProductChangeEvent.DELETED)
+                .productId(1L)
+                .build()));
+    }
+
+    @Test
+    @DisplayName("Test update availability publishes the product id without reading the product back")
+    void testUpdateAvailabilityPublishesChangeEvent() {
+        when(productRepository.toggleAvailability(eq(1L), any(), isNull())).thenReturn(1);
+
+        productService.updateAvailability(1L);
+
+        verify(productRepository, never()).findDtoById(any());
+        verify(changeFeed, times(1)).publish(List.of(ProductChangeEvent.builder()
+                .type(ProductChangeEvent.AVAILABILITY)
+                .productId(1L)
+                .build()));
+    }
+
+    @Test
+    @DisplayName("Test delete product with stale version throws precondition failed exception")
+    void testDeleteWithStaleVersionThrowsPreconditionFailedException() {
+        Product product = Product.builder().id(1L).version(4L).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        assertThrows(PreconditionFailedException.class, () -> productService.delete(1L, 3L));
+        verify(productRepository, times(0)).delete(any(Product.class));
     }
 
     @Test
@@ -194,5 +506,177 @@ class ProductServiceImplTest {
 
         assertThrows(NotFoundException.class, () -> productService.delete(1L));
         verify(productRepository, times(0)).delete(any(Product.class));
+        verify(changeFeed, never()).publish(any());
+    }
+
+    @Test
+    @DisplayName("Test create products in batch successfully")
+    void testCreateAllProductsSuccessfully() {
+        List<ProductDto> productDtos = List.of(
+                ProductDto.builder().name("Product 1").price(BigDecimal.valueOf(100)).build(),
+                ProductDto.builder().name("Product 2").price(BigDecimal.valueOf(200)).build());
+
+        assertDoesNotThrow(() -> productService.createAll(productDtos));
+        verify(productRepository, times(2)).save(any(Product.class));
+        verify(entityManager, times(1)).flush();
+    }
+
+    @Test
+    @DisplayName("Test create products in batch with invalid item throws bad request exception")
+    void testCreateAllWithInvalidItemThrowsBadRequestException() {
+        List<ProductDto> productDtos = List.of(
+                ProductDto.builder().name("Product 1").price(BigDecimal.valueOf(100)).build(),
+                ProductDto.builder().name("").price(BigDecimal.valueOf(200)).build());
+
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> productService.createAll(productDtos));
+        assertEquals("Product at index 1: Name cannot be blank", exception.getMessage());
+        verify(productRepository, times(0)).save(any(Product.class));
+    }
+
+    @Test
+    @DisplayName("Test create products with empty batch throws bad request exception")
+    void testCreateAllWithEmptyBatchThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> productService.createAll(List.of()));
+    }
+
+    @Test
+    @DisplayName("Test update products in batch successfully")
+    void testUpdateAllProductsSuccessfully() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Test Product")
+                .price(BigDecimal.valueOf(1500))
+                .build();
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
+
+        productService.updateAll(List.of(ProductDto.builder()
+                .id(1L)
+                .name("Test Product Updated")
+                .price(BigDecimal.valueOf(1600))
+                .build()));
+
+        assertEquals("Test Product Updated", product.getName());
+        assertEquals(BigDecimal.valueOf(1600), product.getPrice());
+        verify(entityManager, times(1)).flush();
+    }
+
+    @Test
+    @DisplayName("Test update products in batch with missing id throws not found exception")
+    void testUpdateAllWithMissingIdThrowsNotFoundException() {
+        when(productRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(Product.builder().id(1L).build()));
+
+        List<ProductDto> productDtos = List.of(
+                ProductDto.builder().id(1L).name("Product 1").price(BigDecimal.valueOf(100)).build(),
+                ProductDto.builder().id(2L).name("Product 2").price(BigDecimal.valueOf(200)).build());
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> productService.updateAll(productDtos));
+        assertEquals("Products not found: [2]", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test delete products in batch successfully")
+    void testDeleteAllProductsSuccessfully() {
+        List<Product> products = List.of(Product.builder().id(1L).build(), Product.builder().id(2L).build());
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(products);
+
+        productService.deleteAll(List.of(1L, 2L, 1L));
+
+        verify(productRepository, times(1)).deleteAll(products);
+        verify(entityManager, times(2)).persist(any(ProductTombstone.class));
+    }
+
+    @Test
+    @DisplayName("Test changes since a timestamp return modified products and deleted ids")
+    void testGetChangesSinceReturnsProductsAndTombstones() {
+        LocalDateTime changedSince = LocalDateTime.now().minusHours(1);
+        ProductDto productDto = ProductDto.builder().id(2L).name("Test Product").build();
+        when(productRepository.findDtosUpdatedAfter(changedSince, Long.MAX_VALUE, Limit.of(100)))
+                .thenReturn(List.of(productDto));
+        when(tombstoneRepository.findProductIdsDeletedAfter(changedSince)).thenReturn(List.of(1L));
+
+        ProductSyncDto result = productService.getChangesSince(changedSince, null, 100);
+
+        assertEquals(List.of(productDto), result.getProducts());
+        assertEquals(List.of(1L), result.getDeletedIds());
+        assertTrue(result.getSyncedAt().isAfter(changedSince));
+    }
+
+    @Test
+    @DisplayName("Test a full page of changes ends at its last change and only carries deletions up to it")
+    void testGetChangesSinceFullPageContinuesFromLastChange() {
+        LocalDateTime changedSince = LocalDateTime.now().minusHours(1);
+        LocalDateTime lastChange = changedSince.plusMinutes(10);
+        List<ProductDto> productDtos = List.of(
+                ProductDto.builder().id(3L).updatedAt(changedSince.plusMinutes(5)).build(),
+                ProductDto.builder().id(2L).updatedAt(lastChange).build());
+        when(productRepository.findDtosUpdatedAfter(changedSince, 7L, Limit.of(2))).thenReturn(productDtos);
+        when(tombstoneRepository.findProductIdsDeletedBetween(changedSince, lastChange)).thenReturn(List.of(1L));
+
+        ProductSyncDto result = productService.getChangesSince(changedSince, 7L, 2);
+
+        assertEquals(productDtos, result.getProducts());
+        assertEquals(List.of(1L), result.getDeletedIds());
+        assertEquals(lastChange, result.getSyncedAt());
+        verify(tombstoneRepository, never()).findProductIdsDeletedAfter(any());
+    }
+
+    @Test
+    @DisplayName("Test changes since a timestamp older than the tombstone retention throws gone exception")
+    void testGetChangesSinceBeforeRetentionThrowsGoneException() {
+        assertThrows(GoneException.class,
+                () -> productService.getChangesSince(LocalDateTime.now().minusDays(31), null, 100));
+        verify(productRepository, never()).findDtosUpdatedAfter(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test search products successfully")
+    void testSearchProductsSuccessfully() {
+        ProductDto product = ProductDto.builder()
+                .id(1L)
+                .name("Test Product")
+                .price(BigDecimal.valueOf(1500))
+                .availability(true)
+                .build();
+        when(productRepository.findDtos(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1));
+
+        Page<ProductDto> result = productService.search(ProductSearchDto.builder()
+                .name("test")
+                .minPrice(BigDecimal.valueOf(1000))
+                .sort("price,desc")
+                .build());
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("Test Product", result.getContent().get(0).getName());
+        verify(productRepository, times(1)).findDtos(any(Specification.class),
+                eq(PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")))));
+    }
+
+    @Test
+    @DisplayName("Test search products with invalid criteria throws bad request exception")
+    void testSearchProductsWithInvalidCriteriaThrowsBadRequestException() {
+        assertThrows(BadRequestException.class,
+                () -> productService.search(ProductSearchDto.builder().size(0).build()));
+        assertThrows(BadRequestException.class,
+                () -> productService.search(ProductSearchDto.builder().match("regex").name("a").build()));
+        assertThrows(BadRequestException.class,
+                () -> productService.search(ProductSearchDto.builder().sort("password,asc").build()));
+        assertThrows(BadRequestException.class, () -> productService.search(ProductSearchDto.builder()
+                .minPrice(BigDecimal.valueOf(200))
+                .maxPrice(BigDecimal.valueOf(100))
+                .build()));
+        verify(productRepository, never()).findDtos(any(Specification.class), any(Pageable.class));
+    }
+
+    private void awaitCoalescedLoads(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("product.get.coalesced").counter().count() < expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, meterRegistry.get("product.get.coalesced").counter().count());
     }
 }
@@ -0,0 +1,66 @@
+package com.bosorio.Api.services;
+
+import com.bosorio.Api.dto.ProductDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary-with-lagging-replica",
+        "datasource.replicas.enabled=true"
+})
+class ProductServiceReplicaTest {
+
+    // Never receives the writes, like a replica that has fallen behind
+    private static final String REPLICA_URL = "jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCatalogSnapshot catalogSnapshot;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "password");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists products (id bigint primary key, name varchar(255), "
+                    + "price numeric(38, 2), availability boolean, created_at timestamp(6), "
+                    + "updated_at timestamp(6), version bigint not null)");
+        }
+        registry.add("datasource.replicas.urls", () -> REPLICA_URL);
+    }
+
+    @Test
+    @DisplayName("Test the product cache and the snapshot are filled from the primary, not a lagging replica")
+    void testSharedReadsAreFilledFromPrimary() {
+        ProductDto created = productService.create(ProductDto.builder()
+                .name("Primary Product")
+                .price(BigDecimal.TEN)
+                .build());
+        assertTrue(productService.getPage(null, 10).isEmpty());
+
+        assertEquals("Primary Product", productService.getById(created.getId()).getName());
+        productService.update(ProductDto.builder()
+                .name("Updated Product")
+                .price(BigDecimal.ONE)
+                .build(), created.getId(), null);
+
+        assertEquals("Updated Product", productService.getById(created.getId()).getName());
+        assertEquals("Updated Product", productService.getById(created.getId()).getName());
+        assertTrue(new String(catalogSnapshot.get().identity(), StandardCharsets.UTF_8).contains("Updated Product"));
+    }
+}
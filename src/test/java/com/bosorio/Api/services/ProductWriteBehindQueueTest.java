@@ -0,0 +1,166 @@
+package com.bosorio.Api.services;
+
+import com.bosorio.Api.Exceptions.InternalServerErrorException;
+import com.bosorio.Api.entities.WriteBehindCheckpoint;
+import com.bosorio.Api.repositories.WriteBehindCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductWriteBehindQueueTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private WriteBehindCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<ProductWriteBehindQueue> queues = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(checkpointRepository.findById(any())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (ProductWriteBehindQueue queue : queues) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Test repeated toggles of a product are coalesced before they are applied")
+    void testTogglesAreCoalesced() {
+        ProductWriteBehindQueue queue = queue(16);
+        for (long id : new long[]{1, 2, 1, 2, 1, 3}) {
+            assertTrue(queue.append(id));
+        }
+        assertEquals(6, queue.status().getPendingWrites());
+
+        queue.flush();
+
+        verify(productService, times(1)).updateAvailabilityAll(List.of(1L, 3L));
+        verify(checkpointRepository, times(1)).save(new WriteBehindCheckpoint("product-availability:test", 6L));
+        assertEquals(0, queue.status().getPendingWrites());
+        assertEquals(0, queue.status().getLagMillis());
+    }
+
+    @Test
+    @DisplayName("Test toggles that were not applied before a crash are replayed from the log")
+    void testPendingTogglesAreReplayed() {
+        ProductWriteBehindQueue crashed = queue(16);
+        crashed.append(1);
+        crashed.append(2);
+        crashed.append(3);
+        when(checkpointRepository.findById("product-availability:test"))
+                .thenReturn(Optional.of(new WriteBehindCheckpoint("product-availability:test", 1L)));
+
+        ProductWriteBehindQueue recovered = queue(16);
+        assertEquals(2, recovered.status().getPendingWrites());
+        recovered.flush();
+
+        verify(productService, times(1)).updateAvailabilityAll(List.of(2L, 3L));
+        assertTrue(recovered.append(4));
+        assertEquals(4, recovered.status().getLastSequence());
+    }
+
+    @Test
+    @DisplayName("Test a log reopened under another node id resumes from the checkpoint it was written against")
+    void testReopenedLogKeepsItsCheckpoint() {
+        ProductWriteBehindQueue crashed = queue(16, "old-host");
+        crashed.append(1);
+        crashed.append(2);
+        crashed.flush();
+        crashed.append(3);
+        verify(checkpointRepository).save(new WriteBehindCheckpoint("product-availability:old-host", 2L));
+        when(checkpointRepository.findById("product-availability:old-host"))
+                .thenReturn(Optional.of(new WriteBehindCheckpoint("product-availability:old-host", 2L)));
+
+        ProductWriteBehindQueue recovered = queue(16, "new-host");
+        assertEquals(1, recovered.status().getPendingWrites());
+        recovered.flush();
+
+        verify(productService, times(1)).updateAvailabilityAll(List.of(3L));
+        verify(checkpointRepository, never()).findById("product-availability:new-host");
+    }
+
+    @Test
+    @DisplayName("Test a log older than its checkpoint is refused instead of replayed")
+    void testLogBehindCheckpointIsRefused() {
+        queue(16).append(1);
+        when(checkpointRepository.findById("product-availability:test"))
+                .thenReturn(Optional.of(new WriteBehindCheckpoint("product-availability:test", 5L)));
+
+        assertThrows(IllegalStateException.class, () -> queue(16));
+        assertThrows(IllegalStateException.class, () -> queue(32));
+    }
+
+    @Test
+    @DisplayName("Test a full log rejects toggles until pending ones are applied")
+    void testFullLogRejectsToggles() {
+        ProductWriteBehindQueue queue = queue(2);
+        assertTrue(queue.append(1));
+        assertTrue(queue.append(2));
+        assertFalse(queue.append(3));
+
+        queue.flush();
+
+        assertTrue(queue.append(3));
+    }
+
+    @Test
+    @DisplayName("Test toggles are kept and retried when applying them fails")
+    void testFailedFlushIsRetried() {
+        ProductWriteBehindQueue queue = queue(16);
+        queue.append(1);
+        doThrow(new InternalServerErrorException("Database unavailable"))
+                .doNothing()
+                .when(productService).updateAvailabilityAll(any());
+
+        queue.flush();
+        assertEquals(1, queue.status().getPendingWrites());
+        queue.append(2);
+        queue.flush();
+
+        verify(productService, times(1)).updateAvailabilityAll(List.of(1L, 2L));
+        assertEquals(0, queue.status().getPendingWrites());
+    }
+
+    private ProductWriteBehindQueue queue(int capacity) {
+        return queue(capacity, "test");
+    }
+
+    private ProductWriteBehindQueue queue(int capacity, String nodeId) {
+        ProductWriteBehindQueue queue = new ProductWriteBehindQueue(productService, checkpointRepository,
+                transactionManager, new SimpleMeterRegistry(), directory.resolve("products.log"), capacity,
+                Duration.ofHours(1), nodeId);
+        queues.add(queue);
+
+        return queue;
+    }
+}
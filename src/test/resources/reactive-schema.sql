@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS products (
+    id           BIGINT PRIMARY KEY,
+    name         VARCHAR(255),
+    price        NUMERIC(38, 2),
+    availability BOOLEAN,
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    version      BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS product_tombstones (
+    product_id BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMP(6) NOT NULL
+);